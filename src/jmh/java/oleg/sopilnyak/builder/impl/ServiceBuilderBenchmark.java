@@ -0,0 +1,53 @@
+package oleg.sopilnyak.builder.impl;
+
+import oleg.sopilnyak.builder.ServiceBuilder;
+import oleg.sopilnyak.repository.ServiceMeta;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of building service meta-information with declared operations and with operations collected from interface
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceBuilderBenchmark {
+    private ServiceMeta.Operation[] declared;
+
+    @Setup
+    public void setUp() {
+        final ServiceBuilder builder = new ServiceBuilderImpl();
+        declared = new ServiceMeta.Operation[]{
+                builder.operationBuilder().name("getAtoms").result(String.class).build(),
+                builder.operationBuilder().name("getAtomicWeight").parameter(String.class).result(String.class).build(),
+                builder.operationBuilder().name("getAtomicNumber").parameter(String.class).result(String.class).build(),
+                builder.operationBuilder().name("getElementSymbol").parameter(String.class).result(String.class).build()
+        };
+    }
+
+    @Benchmark
+    public ServiceMeta declaredOperations() {
+        return new ServiceBuilderImpl().interfaceClass(Facade.class).id("Facade").operations(declared).build();
+    }
+
+    @Benchmark
+    public ServiceMeta collectInterfaceOperations() {
+        // operations are not declared, so builder collects them from methods of interface
+        return new ServiceBuilderImpl().interfaceClass(Facade.class).id("Facade").build();
+    }
+
+    // inner classes
+    public interface Facade {
+        String getAtoms();
+
+        String getAtomicWeight(String elementName);
+
+        String getAtomicNumber(String elementName);
+
+        String getElementSymbol(String elementName);
+    }
+}
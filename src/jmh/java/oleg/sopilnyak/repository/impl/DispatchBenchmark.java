@@ -0,0 +1,77 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.builder.OperationBuilder;
+import oleg.sopilnyak.builder.impl.ServiceBuilderImpl;
+import oleg.sopilnyak.repository.ServiceMeta;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of call dispatch path (overload resolution and invocation of operation method)<BR/>
+ * Run it with GC profiler to see allocations per call: gradle jmh -PjmhArgs='DispatchBenchmark -prof gc'<BR/>
+ * Arity-specialised dispatch should show gc.alloc.rate.norm about 0 B/op
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    private final Facade instance = new FacadeImpl();
+    private final String parameter = "value";
+    private final Integer extra = 1;
+    private OperationDispatcher dispatcher;
+
+    @Setup
+    public void setUp() throws Exception {
+        final OperationBuilder builder = new ServiceBuilderImpl().operationBuilder();
+        final ServiceMeta.Operation one = builder.name("echo").parameter(String.class).result(String.class).method(Facade.class.getMethod("echo", String.class)).build();
+        final ServiceMeta.Operation two = builder.name("echo").parameter(String.class).parameterExtra(Integer.class).result(String.class)
+                .method(Facade.class.getMethod("echo", String.class, Integer.class)).build();
+        final Map<ServiceMeta.Operation, OperationInvoker> invokers = new HashMap<>();
+        invokers.put(one, OperationInvoker.of(one.getOperationMethod()));
+        invokers.put(two, OperationInvoker.of(two.getOperationMethod()));
+        dispatcher = new OperationDispatcher("echo", Arrays.asList(one, two), invokers);
+    }
+
+    @Benchmark
+    public Object arityDispatch1() throws Throwable {
+        return dispatcher.resolve(parameter, null, 1).getInvoker().invoke1(instance, parameter);
+    }
+
+    @Benchmark
+    public Object arityDispatch2() throws Throwable {
+        return dispatcher.resolve(parameter, extra, 2).getInvoker().invoke2(instance, parameter, extra);
+    }
+
+    @Benchmark
+    public Object arrayDispatch2() throws Throwable {
+        // the way of parameters marshalling before arity-specialised calls
+        final List parameters = new ArrayList(Collections.singletonList(parameter));
+        parameters.addAll(Arrays.asList(new Object[]{extra}));
+        final Object[] actual = parameters.toArray();
+        return dispatcher.resolve(actual).getInvoker().invoke(instance, actual);
+    }
+
+    // inner classes
+    public interface Facade {
+        String echo(String value);
+
+        String echo(String value, Integer times);
+    }
+
+    private static class FacadeImpl implements Facade {
+        @Override
+        public String echo(String value) {
+            return value;
+        }
+
+        @Override
+        public String echo(String value, Integer times) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.builder.ServiceBuilder;
+import oleg.sopilnyak.builder.impl.ServiceBuilderImpl;
+import oleg.sopilnyak.call.Call;
+import oleg.sopilnyak.repository.ServiceMeta;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of asynchronous calls to slow remote service executed by platform and by virtual threads<BR/>
+ * Virtual threads need Java 21+, on older Java both modes use platform threads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExecutionModeBenchmark {
+    @Param({"PLATFORM_THREADS", "VIRTUAL_THREADS"})
+    private ExecutionMode mode;
+    @Param({"1000"})
+    private int instances;
+    @Param({"5000"})
+    private int calls;
+    // duration of simulated remote input/output
+    @Param({"20"})
+    private long latency;
+
+    private ServiceInstancesPool pool;
+    private Call<String, String> call;
+
+    @Setup
+    public void setUp() throws Exception {
+        final ServiceBuilder builder = new ServiceBuilderImpl().interfaceClass(SlowFacade.class).id("SlowFacade");
+        builder.operations(builder.operationBuilder().name("echo").parameter(String.class).result(String.class).build());
+        pool = new ServiceInstancesPool(builder.build(), clazz -> (SlowFacade) value -> {
+            TimeUnit.MILLISECONDS.sleep(latency);
+            return value;
+        });
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(instances);
+        pool.setMaximumInstances(instances);
+        pool.setExecutionMode(mode);
+        pool.start();
+        call = pool.getOperationCall("echo");
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Object inFlightCalls() {
+        final CompletableFuture[] futures = new CompletableFuture[calls];
+        for (int i = 0; i < calls; i++) {
+            futures[i] = call.invokeAsync("value");
+        }
+        return CompletableFuture.allOf(futures).join();
+    }
+
+    // inner classes
+    public interface SlowFacade {
+        String echo(String value) throws InterruptedException;
+    }
+}
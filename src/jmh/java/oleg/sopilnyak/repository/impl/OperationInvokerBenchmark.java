@@ -0,0 +1,55 @@
+package oleg.sopilnyak.repository.impl;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of operation method invocation by reflection and by bound invoker
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationInvokerBenchmark {
+    private final Facade instance = new FacadeImpl();
+    private final Object[] parameters = {"value"};
+    private Method method;
+    private OperationInvoker invoker;
+
+    @Setup
+    public void setUp() throws Exception {
+        method = Facade.class.getMethod("echo", String.class);
+        invoker = OperationInvoker.of(method);
+    }
+
+    @Benchmark
+    public Object direct() {
+        return instance.echo((String) parameters[0]);
+    }
+
+    @Benchmark
+    public Object reflection() throws Exception {
+        return method.invoke(instance, parameters);
+    }
+
+    @Benchmark
+    public Object invoker() throws Throwable {
+        return invoker.invoke(instance, parameters);
+    }
+
+    // inner classes
+    public interface Facade {
+        String echo(String value);
+    }
+
+    private static class FacadeImpl implements Facade {
+        @Override
+        public String echo(String value) {
+            return value;
+        }
+    }
+}
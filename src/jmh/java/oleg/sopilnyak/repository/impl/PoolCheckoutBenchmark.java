@@ -0,0 +1,112 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.builder.ServiceBuilder;
+import oleg.sopilnyak.builder.impl.ServiceBuilderImpl;
+import oleg.sopilnyak.call.Call;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of service instances checkout and checkin under 1..64 calling threads<BR/>
+ * Service is in-process fake without latency, so benchmark measures overhead of pool only<BR/>
+ * Instances slots are measured alone and as part of operation call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoolCheckoutBenchmark {
+    // capacity of pool (callers wait for free instance if there are more threads)
+    @Param({"8", "64"})
+    private int instances;
+
+    private ServiceInstancesPool pool;
+    private Call<String, String> call;
+    private InstanceSlots slots;
+
+    @Setup
+    public void setUp() throws Exception {
+        final ServiceBuilder builder = new ServiceBuilderImpl().interfaceClass(FastFacade.class).id("FastFacade");
+        builder.operations(builder.operationBuilder().name("echo").parameter(String.class).result(String.class).build());
+        pool = new ServiceInstancesPool(builder.build(), clazz -> (FastFacade) value -> value);
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(instances);
+        pool.setMaximumInstances(instances);
+        pool.start();
+        call = pool.getOperationCall("echo");
+
+        slots = new InstanceSlots(instances);
+        for (int i = 0; i < instances; i++) {
+            final InstanceSlots.Slot slot = slots.reserve();
+            slots.fill(slot, "instance-" + i);
+            slots.checkin(slot);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object callThreads1() throws Exception {
+        return call.invoke1("value");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object callThreads4() throws Exception {
+        return call.invoke1("value");
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Object callThreads16() throws Exception {
+        return call.invoke1("value");
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Object callThreads64() throws Exception {
+        return call.invoke1("value");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean slotsThreads1() {
+        return checkoutCheckin();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean slotsThreads4() {
+        return checkoutCheckin();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean slotsThreads16() {
+        return checkoutCheckin();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean slotsThreads64() {
+        return checkoutCheckin();
+    }
+
+    // private methods
+    private boolean checkoutCheckin() {
+        final InstanceSlots.Slot slot = slots.checkout();
+        return slot != null && slots.checkin(slot);
+    }
+
+    // inner classes
+    public interface FastFacade {
+        String echo(String value);
+    }
+}
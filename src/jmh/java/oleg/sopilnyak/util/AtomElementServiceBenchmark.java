@@ -0,0 +1,79 @@
+package oleg.sopilnyak.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of parsing responses of Periodical SOAP Service, responses are generated like NewDataSet of real service<BR/>
+ * Document (JDOM) parsing is compared with streaming (StAX) one, run with "-prof gc" to compare allocations
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AtomElementServiceBenchmark {
+    // quantity of tables in data-set (real service returns 112 elements)
+    @Param({"1", "112", "1000"})
+    private int tables;
+
+    private String atoms;
+    private String atom;
+
+    @Setup
+    public void setUp() {
+        atoms = dataSet(tables);
+        atom = dataSet(1);
+    }
+
+    @Benchmark
+    public List<String> atomElements() throws Exception {
+        return AtomElementService.atomElements(atoms);
+    }
+
+    @Benchmark
+    public List<String> atomElementsStreaming() throws Exception {
+        final List<String> result = new ArrayList<>();
+        AtomElementService.atomElements(new StringReader(atoms), result::add);
+        return result;
+    }
+
+    @Benchmark
+    public void atomElementsConsumer(Blackhole blackhole) throws Exception {
+        AtomElementService.atomElements(new StringReader(atoms), blackhole::consume);
+    }
+
+    @Benchmark
+    public long atomElementsStream() throws Exception {
+        try (Stream<String> names = AtomElementService.atomElementsStream(new StringReader(atoms))) {
+            return names.count();
+        }
+    }
+
+    @Benchmark
+    public String atomParameter() throws Exception {
+        return AtomElementService.atomParameter(atom, "AtomicWeight");
+    }
+
+    // private methods
+    static String dataSet(int tables) {
+        final StringBuilder xml = new StringBuilder("<NewDataSet>");
+        for (int i = 1; i <= tables; i++) {
+            xml.append("<Table>")
+                    .append("<AtomicNumber>").append(i).append("</AtomicNumber>")
+                    .append("<ElementName>Element-").append(i).append("</ElementName>")
+                    .append("<Symbol>E").append(i).append("</Symbol>")
+                    .append("<AtomicWeight>").append(i * 2.0157).append("</AtomicWeight>")
+                    .append("</Table>");
+        }
+        return xml.append("</NewDataSet>").toString();
+    }
+}
@@ -13,6 +13,11 @@ public interface OperationBuilder {
     OperationBuilder result(Class resultClass);
     OperationBuilder parameterExtra(Class... paramClass);
     OperationBuilder method(Method method);
+    OperationBuilder maxConcurrentCalls(int maxConcurrentCalls);
+    OperationBuilder maxWaitingCalls(int maxWaitingCalls);
+    OperationBuilder coalesced(boolean coalesced);
+    OperationBuilder cacheTtlValue(long cacheTtlValue);
+    OperationBuilder refreshIntervalValue(long refreshIntervalValue);
 
     OperationBuilder apply(ServiceMeta.Operation operation);
 
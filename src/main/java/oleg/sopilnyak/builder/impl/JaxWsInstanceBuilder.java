@@ -0,0 +1,125 @@
+package oleg.sopilnyak.builder.impl;
+
+import javax.xml.namespace.QName;
+import javax.xml.ws.BindingProvider;
+import javax.xml.ws.Service;
+import javax.xml.ws.WebServiceClient;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.function.Function;
+
+/**
+ * Builder of SOAP service instances (JAX-WS ports) for services pool<BR/>
+ * JAX-WS service (parsed WSDL and model) is made once by the builder and is shared by all ports it makes,
+ * so making of new port doesn't read and parse WSDL again. Pool releases the service at shutdown<BR/>
+ * Usage: new ServiceInstancesPool(meta, JaxWsInstanceBuilder.of(Periodictable.class).localWsdl("periodictable.wsdl"))
+ */
+public class JaxWsInstanceBuilder implements Function<Object, Object>, AutoCloseable {
+    private volatile URL wsdlLocation;
+    private final QName serviceName;
+    private String endpointAddress;
+    // JAX-WS service shared by ports of the builder (null - it's not made yet)
+    private volatile Service service;
+
+    public JaxWsInstanceBuilder(URL wsdlLocation, QName serviceName) {
+        this.wsdlLocation = wsdlLocation;
+        this.serviceName = serviceName;
+    }
+
+    /**
+     * To make builder for service client generated by wsimport
+     *
+     * @param serviceClass class of generated service client (annotated by WebServiceClient)
+     * @return builder of ports
+     */
+    public static JaxWsInstanceBuilder of(Class<? extends Service> serviceClass) {
+        final WebServiceClient client = serviceClass.getAnnotation(WebServiceClient.class);
+        if (client == null) {
+            throw new IllegalArgumentException("Not a generated web-service client " + serviceClass);
+        }
+        try {
+            final URL wsdlLocation = client.wsdlLocation().isEmpty() ? null : new URL(client.wsdlLocation());
+            return new JaxWsInstanceBuilder(wsdlLocation, new QName(client.targetNamespace(), client.name()));
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Wrong WSDL location of " + serviceClass, e);
+        }
+    }
+
+    /**
+     * To setup location of WSDL instead of declared one
+     *
+     * @param wsdlLocation location of WSDL
+     * @return this builder
+     */
+    public JaxWsInstanceBuilder wsdlLocation(URL wsdlLocation) {
+        this.wsdlLocation = wsdlLocation;
+        close();
+        return this;
+    }
+
+    /**
+     * To use WSDL from class-path instead of remote one
+     *
+     * @param resource the name of WSDL resource
+     * @return this builder
+     */
+    public JaxWsInstanceBuilder localWsdl(String resource) {
+        final URL local = Thread.currentThread().getContextClassLoader().getResource(resource);
+        if (local == null) {
+            throw new IllegalArgumentException("No WSDL resource " + resource);
+        }
+        return wsdlLocation(local);
+    }
+
+    /**
+     * To setup address of service endpoint instead of address from WSDL
+     *
+     * @param endpointAddress url of endpoint
+     * @return this builder
+     */
+    public JaxWsInstanceBuilder endpointAddress(String endpointAddress) {
+        this.endpointAddress = endpointAddress;
+        return this;
+    }
+
+    /**
+     * To make new port of service
+     *
+     * @param facadeClass interface of service (service endpoint interface)
+     * @return port of service
+     */
+    @Override
+    public Object apply(Object facadeClass) {
+        final Object port = service().getPort((Class<?>) facadeClass);
+        if (endpointAddress != null) {
+            ((BindingProvider) port).getRequestContext().put(BindingProvider.ENDPOINT_ADDRESS_PROPERTY, endpointAddress);
+        }
+        return port;
+    }
+
+    /**
+     * To throw away shared JAX-WS service, the builder stays usable and next port is made by new service
+     */
+    @Override
+    public synchronized void close() {
+        service = null;
+    }
+
+    /**
+     * To get shared JAX-WS service
+     *
+     * @return service
+     */
+    Service service() {
+        final Service current = service;
+        return current != null ? current : makeService();
+    }
+
+    // private methods
+    private synchronized Service makeService() {
+        if (service == null) {
+            service = Service.create(wsdlLocation, serviceName);
+        }
+        return service;
+    }
+}
@@ -13,6 +13,11 @@ public class OperationBuilderImpl implements OperationBuilder {
     private Class<?> returnClass = Void.class;
     private Class<?>[] extraParameterClasses = new Class[0];
     private Method operationMethod;
+    private int maxConcurrentCalls;
+    private int maxWaitingCalls;
+    private boolean coalesced;
+    private long cacheTtlValue;
+    private long refreshIntervalValue;
 
     public OperationBuilderImpl(ServiceMeta.Operation operation) {
         assert operation != null;
@@ -21,6 +26,11 @@ public class OperationBuilderImpl implements OperationBuilder {
         extraParameterClasses = operation.getExtraParameterClasses();
         returnClass = operation.getResultClass();
         operationMethod = null;
+        maxConcurrentCalls = operation.getMaxConcurrentCalls();
+        maxWaitingCalls = operation.getMaxWaitingCalls();
+        coalesced = operation.isCoalesced();
+        cacheTtlValue = operation.getCacheTtlValue();
+        refreshIntervalValue = operation.getRefreshIntervalValue();
     }
 
     OperationBuilderImpl(Method method) {
@@ -48,6 +58,11 @@ public class OperationBuilderImpl implements OperationBuilder {
         extraParameterClasses = operation.getExtraParameterClasses();
         returnClass = operation.getResultClass();
         operationMethod = null;
+        maxConcurrentCalls = operation.getMaxConcurrentCalls();
+        maxWaitingCalls = operation.getMaxWaitingCalls();
+        coalesced = operation.isCoalesced();
+        cacheTtlValue = operation.getCacheTtlValue();
+        refreshIntervalValue = operation.getRefreshIntervalValue();
         return this;
     }
 
@@ -82,6 +97,36 @@ public class OperationBuilderImpl implements OperationBuilder {
         return this;
     }
 
+    @Override
+    public OperationBuilder maxConcurrentCalls(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        return this;
+    }
+
+    @Override
+    public OperationBuilder maxWaitingCalls(int maxWaitingCalls) {
+        this.maxWaitingCalls = maxWaitingCalls;
+        return this;
+    }
+
+    @Override
+    public OperationBuilder coalesced(boolean coalesced) {
+        this.coalesced = coalesced;
+        return this;
+    }
+
+    @Override
+    public OperationBuilder cacheTtlValue(long cacheTtlValue) {
+        this.cacheTtlValue = cacheTtlValue;
+        return this;
+    }
+
+    @Override
+    public OperationBuilder refreshIntervalValue(long refreshIntervalValue) {
+        this.refreshIntervalValue = refreshIntervalValue;
+        return this;
+    }
+
     @Override
     public ServiceMeta.Operation build() {
         return new OperationImpl(this);
@@ -95,6 +140,11 @@ public class OperationBuilderImpl implements OperationBuilder {
         private final Class<?> resultClass;
         private final Class[] extraParameterClasses;
         private final Method operationMethod;
+        private final int maxConcurrentCalls;
+        private final int maxWaitingCalls;
+        private final boolean coalesced;
+        private final long cacheTtlValue;
+        private final long refreshIntervalValue;
 
         private OperationImpl(OperationBuilderImpl builder) {
             this.name = builder.name;
@@ -102,6 +152,11 @@ public class OperationBuilderImpl implements OperationBuilder {
             this.resultClass = builder.returnClass;
             this.extraParameterClasses = builder.extraParameterClasses;
             this.operationMethod = builder.operationMethod;
+            this.maxConcurrentCalls = builder.maxConcurrentCalls;
+            this.maxWaitingCalls = builder.maxWaitingCalls;
+            this.coalesced = builder.coalesced;
+            this.cacheTtlValue = builder.cacheTtlValue;
+            this.refreshIntervalValue = builder.refreshIntervalValue;
         }
 
         /**
@@ -154,6 +209,56 @@ public class OperationBuilderImpl implements OperationBuilder {
             return operationMethod;
         }
 
+        /**
+         * Maximum quantity of concurrent calls of operation
+         *
+         * @return value (0 - calls are limited by pool size only)
+         */
+        @Override
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        /**
+         * Maximum quantity of callers waiting for turn when concurrent calls are at maximum
+         *
+         * @return value
+         */
+        @Override
+        public int getMaxWaitingCalls() {
+            return maxWaitingCalls;
+        }
+
+        /**
+         * Flag of sharing one execution between concurrent calls with equal parameters
+         *
+         * @return true if operation may be coalesced
+         */
+        @Override
+        public boolean isCoalesced() {
+            return coalesced;
+        }
+
+        /**
+         * Time to live of cached result of idempotent operation
+         *
+         * @return value in milliseconds (0 - result isn't cached)
+         */
+        @Override
+        public long getCacheTtlValue() {
+            return cacheTtlValue;
+        }
+
+        /**
+         * Period of background refresh of the latest result of parameterless operation
+         *
+         * @return value in milliseconds (0 - every call is executed)
+         */
+        @Override
+        public long getRefreshIntervalValue() {
+            return refreshIntervalValue;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -180,6 +285,19 @@ public class OperationBuilderImpl implements OperationBuilder {
             sb.append(", parameterClass=").append(parameterClass);
             sb.append(", resultClass=").append(resultClass);
             sb.append(", extraParameterClasses=").append(Arrays.toString(extraParameterClasses));
+            if (maxConcurrentCalls > 0) {
+                sb.append(", maxConcurrentCalls=").append(maxConcurrentCalls);
+                sb.append(", maxWaitingCalls=").append(maxWaitingCalls);
+            }
+            if (coalesced) {
+                sb.append(", coalesced=true");
+            }
+            if (cacheTtlValue > 0) {
+                sb.append(", cacheTtlValue=").append(cacheTtlValue);
+            }
+            if (refreshIntervalValue > 0) {
+                sb.append(", refreshIntervalValue=").append(refreshIntervalValue);
+            }
             sb.append('}');
             return sb.toString();
         }
@@ -2,6 +2,9 @@ package oleg.sopilnyak.call;
 
 import oleg.sopilnyak.exception.ServiceCallException;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Service entity to execute registered operation of service
  */
@@ -30,4 +33,69 @@ public interface Call<R, P> {
      * @throws ServiceCallException throws if cannot execute operation
      */
     R invoke() throws ServiceCallException;
+
+    /**
+     * To invoke operation of service without parameters (implementation may avoid intermediate arrays)
+     *
+     * @return result of operation
+     * @throws ServiceCallException throws if cannot execute operation
+     */
+    default R invoke0() throws ServiceCallException {
+        return invoke();
+    }
+
+    /**
+     * To invoke operation of service with one parameter (implementation may avoid intermediate arrays)
+     *
+     * @param param obligated parameter of operation
+     * @return result of operation
+     * @throws ServiceCallException throws if cannot execute operation
+     */
+    default R invoke1(P param) throws ServiceCallException {
+        return invoke(param);
+    }
+
+    /**
+     * To invoke operation of service with parameter and one extra parameter (implementation may avoid intermediate arrays)
+     *
+     * @param param obligated parameter of operation
+     * @param extra extra parameter of operation
+     * @return result of operation
+     * @throws ServiceCallException throws if cannot execute operation
+     */
+    default R invoke2(P param, Object extra) throws ServiceCallException {
+        return invoke(param, extra);
+    }
+
+    /**
+     * To invoke operation of service asynchronously
+     *
+     * @param param obligated parameter of operation
+     * @param extra extra parameters of operation
+     * @return future of operation result, cancel of the future releases the call
+     */
+    default CompletableFuture<R> invokeAsync(P param, Object... extra) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return invoke(param, extra);
+            } catch (ServiceCallException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * To invoke operation of service without parameters asynchronously
+     *
+     * @return future of operation result, cancel of the future releases the call
+     */
+    default CompletableFuture<R> invokeAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return invoke();
+            } catch (ServiceCallException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
 }
@@ -0,0 +1,45 @@
+package oleg.sopilnyak.call;
+
+/**
+ * Listener of operation calls events<BR/>
+ * Listener is notified by the calling thread, so it must be fast and must not throw exceptions
+ */
+public interface CallListener {
+    /**
+     * Listener which ignores all events
+     */
+    CallListener NONE = new CallListener() {
+    };
+
+    /**
+     * Call of operation is started
+     *
+     * @param serviceId     id of service
+     * @param operationName the name of operation
+     */
+    default void callStarted(String serviceId, String operationName) {
+    }
+
+    /**
+     * Call of operation is successfully finished
+     *
+     * @param serviceId      id of service
+     * @param operationName  the name of operation
+     * @param waitNanos      duration of waiting for permit and free service instance
+     * @param executionNanos duration of operation method execution
+     */
+    default void callFinished(String serviceId, String operationName, long waitNanos, long executionNanos) {
+    }
+
+    /**
+     * Call of operation is failed
+     *
+     * @param serviceId      id of service
+     * @param operationName  the name of operation
+     * @param waitNanos      duration of waiting for permit and free service instance
+     * @param executionNanos duration of operation method execution (0 if method was not executed)
+     * @param error          the cause of fail
+     */
+    default void callFailed(String serviceId, String operationName, long waitNanos, long executionNanos, Throwable error) {
+    }
+}
@@ -0,0 +1,64 @@
+package oleg.sopilnyak.call;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener which logs the sample of finished calls and all failed calls<BR/>
+ * Results and parameters of calls are never logged
+ */
+public class SampledLoggingCallListener implements CallListener {
+    private static final Logger log = LoggerFactory.getLogger(SampledLoggingCallListener.class);
+    // one of sampleRate finished calls is logged
+    private final int sampleRate;
+
+    /**
+     * @param sampleRate one of how many finished calls is logged (1 - every call)
+     */
+    public SampledLoggingCallListener(int sampleRate) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("Sample rate should be positive.");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Call of operation is successfully finished
+     *
+     * @param serviceId      id of service
+     * @param operationName  the name of operation
+     * @param waitNanos      duration of waiting for permit and free service instance
+     * @param executionNanos duration of operation method execution
+     */
+    @Override
+    public void callFinished(String serviceId, String operationName, long waitNanos, long executionNanos) {
+        if (log.isInfoEnabled() && isSampled()) {
+            log.info("Operation {} of service {} is executed, waiting: {} us, execution: {} us",
+                    operationName, serviceId, TimeUnit.NANOSECONDS.toMicros(waitNanos), TimeUnit.NANOSECONDS.toMicros(executionNanos));
+        }
+    }
+
+    /**
+     * Call of operation is failed
+     *
+     * @param serviceId      id of service
+     * @param operationName  the name of operation
+     * @param waitNanos      duration of waiting for permit and free service instance
+     * @param executionNanos duration of operation method execution (0 if method was not executed)
+     * @param error          the cause of fail
+     */
+    @Override
+    public void callFailed(String serviceId, String operationName, long waitNanos, long executionNanos, Throwable error) {
+        if (log.isErrorEnabled()) {
+            log.error("Cannot execute operation " + operationName + " of service " + serviceId, error);
+        }
+    }
+
+    // private methods
+    private boolean isSampled() {
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+}
@@ -0,0 +1,275 @@
+package oleg.sopilnyak.circuit;
+
+import oleg.sopilnyak.util.Failures;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Circuit breaker of remote calls<BR/>
+ * Outcomes of last calls are kept in sliding window, when rate of failed or slow calls reaches the threshold
+ * the circuit is opened and calls are rejected. After open duration the circuit lets a few probe calls (half-open),
+ * it's closed if all of them succeed, otherwise it's opened again
+ */
+public class CircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+    // outcome flags of call in the window
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final String name;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final Predicate<Throwable> failure;
+
+    private volatile State state = State.CLOSED;
+    // the moment (System.nanoTime()) when circuit was opened
+    private volatile long openedAt;
+    // quantity of permitted probe calls in half-open state
+    private final AtomicInteger probes = new AtomicInteger();
+    // quantity of succeeded probe calls (guarded by this)
+    private int probesSucceeded;
+    // sliding window of calls outcomes (guarded by this)
+    private final byte[] outcomes;
+    private int next;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+
+    public CircuitBreaker(String name, Settings settings) {
+        if (settings.windowSize < 1 || settings.halfOpenCalls < 1) {
+            throw new IllegalArgumentException("Wrong window size " + settings.windowSize + " or half-open calls " + settings.halfOpenCalls);
+        }
+        this.name = name;
+        this.failureRateThreshold = settings.failureRateThreshold;
+        this.slowCallRateThreshold = settings.slowCallRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(settings.slowCallDurationValue);
+        this.minimumCalls = Math.max(1, Math.min(settings.minimumCalls, settings.windowSize));
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(settings.openDurationValue);
+        this.halfOpenCalls = settings.halfOpenCalls;
+        this.failure = settings.failure;
+        this.outcomes = new byte[settings.windowSize];
+    }
+
+    /**
+     * To get permission for the call
+     *
+     * @return true if call is permitted, the outcome of call should be reported by onSuccess, onFailure or release
+     */
+    public boolean tryAcquire() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            current = halfOpen();
+        }
+        return current == State.CLOSED || current == State.HALF_OPEN && acquireProbe();
+    }
+
+    /**
+     * To give back permission of the call which wasn't made
+     */
+    public void release() {
+        if (state == State.HALF_OPEN) {
+            probes.getAndUpdate(permitted -> permitted > 0 ? permitted - 1 : 0);
+        }
+    }
+
+    /**
+     * To report succeeded call
+     *
+     * @param nanos duration of the call
+     */
+    public void onSuccess(long nanos) {
+        record(nanos, false);
+    }
+
+    /**
+     * To report failed call
+     *
+     * @param nanos duration of the call
+     * @param error failure of the call
+     */
+    public void onFailure(long nanos, Throwable error) {
+        record(nanos, failure.test(error));
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // private methods
+    private synchronized State halfOpen() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            probes.set(0);
+            probesSucceeded = 0;
+            state = State.HALF_OPEN;
+            log.info("Circuit {} is half-open", name);
+        }
+        return state;
+    }
+
+    private boolean acquireProbe() {
+        while (true) {
+            final int permitted = probes.get();
+            if (permitted >= halfOpenCalls) {
+                return false;
+            }
+            if (probes.compareAndSet(permitted, permitted + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private synchronized void record(long nanos, boolean failed) {
+        final boolean slow = nanos >= slowCallNanos;
+        switch (state) {
+            case CLOSED:
+                slide(failed, slow);
+                if (calls >= minimumCalls && (failures * 100f >= failureRateThreshold * calls || slowCalls * 100f >= slowCallRateThreshold * calls)) {
+                    log.warn("Circuit {} is open, failed calls: {} slow calls: {} of {}", name, failures, slowCalls, calls);
+                    open();
+                }
+                break;
+            case HALF_OPEN:
+                if (failed || slow) {
+                    log.warn("Circuit {} is open again after probe call", name);
+                    open();
+                } else if (++probesSucceeded >= halfOpenCalls) {
+                    log.info("Circuit {} is closed", name);
+                    state = State.CLOSED;
+                }
+                break;
+            default:
+                // outcome of call started before opening
+        }
+    }
+
+    private void slide(boolean failed, boolean slow) {
+        if (calls == outcomes.length) {
+            final byte oldest = outcomes[next];
+            failures -= oldest & FAILED;
+            slowCalls -= (oldest & SLOW) >> 1;
+        } else {
+            calls++;
+        }
+        outcomes[next] = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+        failures += failed ? 1 : 0;
+        slowCalls += slow ? 1 : 0;
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        state = State.OPEN;
+        next = calls = failures = slowCalls = 0;
+    }
+
+    // inner classes
+    public enum State {
+        // calls are permitted
+        CLOSED,
+        // calls are rejected
+        OPEN,
+        // a few probe calls are permitted
+        HALF_OPEN
+    }
+
+    /**
+     * Settings of circuit breaker, durations are in milliseconds
+     */
+    public static class Settings {
+        private float failureRateThreshold = 50f;
+        private float slowCallRateThreshold = 100f;
+        private long slowCallDurationValue = 60_000;
+        private int windowSize = 100;
+        private int minimumCalls = 10;
+        private long openDurationValue = 60_000;
+        private int halfOpenCalls = 3;
+        private Predicate<Throwable> failure = error -> !Failures.isInterruption(error);
+
+        /**
+         * @param failureRateThreshold percentage of failed calls in the window to open the circuit
+         * @return settings
+         */
+        public Settings failureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param slowCallRateThreshold percentage of slow calls in the window to open the circuit
+         * @return settings
+         */
+        public Settings slowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param slowCallDurationValue duration of call after which the call is slow
+         * @return settings
+         */
+        public Settings slowCallDurationValue(long slowCallDurationValue) {
+            this.slowCallDurationValue = slowCallDurationValue;
+            return this;
+        }
+
+        /**
+         * @param windowSize quantity of last calls which outcomes are kept
+         * @return settings
+         */
+        public Settings windowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * @param minimumCalls quantity of calls in the window before rates are checked
+         * @return settings
+         */
+        public Settings minimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * @param openDurationValue duration of open state before probe calls
+         * @return settings
+         */
+        public Settings openDurationValue(long openDurationValue) {
+            this.openDurationValue = openDurationValue;
+            return this;
+        }
+
+        /**
+         * @param halfOpenCalls quantity of probe calls which should succeed to close the circuit
+         * @return settings
+         */
+        public Settings halfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        /**
+         * @param failure classifier of failures which are counted (by default all except interruption, wrapped one as well)
+         * @return settings
+         */
+        public Settings failure(Predicate<Throwable> failure) {
+            this.failure = failure;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package oleg.sopilnyak.exception;
+
+/**
+ * Exception throws when call of operation is rejected because operation has maximum of concurrent and waiting calls
+ */
+public class BulkheadFullException extends ServiceCallException {
+    private static final long serialVersionUID = 1L;
+
+    private final String serviceId;
+    private final String operationName;
+
+    /**
+     * Constructs a new exception with the specified detail message.  The
+     * cause is not initialized, and may subsequently be initialized by
+     * a call to {@link #initCause}.
+     *
+     * @param message       the detail message. The detail message is saved for
+     *                      later retrieval by the {@link #getMessage()} method.
+     * @param serviceId     the id of service
+     * @param operationName the name of rejected operation
+     */
+    public BulkheadFullException(String message, String serviceId, String operationName) {
+        super(message);
+        this.serviceId = serviceId;
+        this.operationName = operationName;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+}
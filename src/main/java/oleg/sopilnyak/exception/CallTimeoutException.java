@@ -0,0 +1,35 @@
+package oleg.sopilnyak.exception;
+
+/**
+ * Exception throws when asynchronous call of operation is not finished during call timeout
+ */
+public class CallTimeoutException extends ServiceCallException {
+    private static final long serialVersionUID = 1L;
+
+    private final String operationName;
+    private final long timeout;
+
+    /**
+     * Constructs a new exception with the specified detail message.  The
+     * cause is not initialized, and may subsequently be initialized by
+     * a call to {@link #initCause}.
+     *
+     * @param message       the detail message. The detail message is saved for
+     *                      later retrieval by the {@link #getMessage()} method.
+     * @param operationName the name of timed out operation
+     * @param timeout       call timeout in milliseconds
+     */
+    public CallTimeoutException(String message, String operationName, long timeout) {
+        super(message);
+        this.operationName = operationName;
+        this.timeout = timeout;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+}
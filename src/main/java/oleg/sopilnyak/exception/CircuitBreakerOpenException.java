@@ -0,0 +1,34 @@
+package oleg.sopilnyak.exception;
+
+/**
+ * Exception throws when call of operation is rejected by open circuit breaker<BR/>
+ * It's thrown at once for every rejected call, so stack trace is not filled
+ */
+public class CircuitBreakerOpenException extends ServiceCallException {
+    private static final long serialVersionUID = 1L;
+
+    private final String serviceId;
+    private final String operationName;
+
+    /**
+     * Constructs a new exception with the specified detail message.
+     *
+     * @param message       the detail message. The detail message is saved for
+     *                      later retrieval by the {@link #getMessage()} method.
+     * @param serviceId     the id of service
+     * @param operationName the name of rejected operation
+     */
+    public CircuitBreakerOpenException(String message, String serviceId, String operationName) {
+        super(message, null, false, false);
+        this.serviceId = serviceId;
+        this.operationName = operationName;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+}
@@ -0,0 +1,35 @@
+package oleg.sopilnyak.exception;
+
+/**
+ * Exception throws when pool cannot give free service instance during acquire timeout
+ */
+public class InstanceAcquireTimeoutException extends ServiceCallException {
+    private static final long serialVersionUID = 1L;
+
+    private final String serviceId;
+    private final long timeout;
+
+    /**
+     * Constructs a new exception with the specified detail message.  The
+     * cause is not initialized, and may subsequently be initialized by
+     * a call to {@link #initCause}.
+     *
+     * @param message   the detail message. The detail message is saved for
+     *                  later retrieval by the {@link #getMessage()} method.
+     * @param serviceId the id of exhausted service
+     * @param timeout   acquire timeout in milliseconds
+     */
+    public InstanceAcquireTimeoutException(String message, String serviceId, long timeout) {
+        super(message);
+        this.serviceId = serviceId;
+        this.timeout = timeout;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+}
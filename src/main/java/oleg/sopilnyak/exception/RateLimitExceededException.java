@@ -0,0 +1,28 @@
+package oleg.sopilnyak.exception;
+
+/**
+ * Exception throws when call of operation is rejected by rate limit of service
+ */
+public class RateLimitExceededException extends ServiceCallException {
+    private static final long serialVersionUID = 1L;
+
+    private final String operationName;
+
+    /**
+     * Constructs a new exception with the specified detail message.  The
+     * cause is not initialized, and may subsequently be initialized by
+     * a call to {@link #initCause}.
+     *
+     * @param message       the detail message. The detail message is saved for
+     *                      later retrieval by the {@link #getMessage()} method.
+     * @param operationName the name of rejected operation
+     */
+    public RateLimitExceededException(String message, String operationName) {
+        super(message);
+        this.operationName = operationName;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+}
@@ -0,0 +1,86 @@
+package oleg.sopilnyak.metrics;
+
+/**
+ * Immutable state of results cache
+ */
+public class CacheSnapshot {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final int entries;
+    private final long bytes;
+
+    public CacheSnapshot(long hits, long misses, long evictions, long expirations, int entries, long bytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.entries = entries;
+        this.bytes = bytes;
+    }
+
+    /**
+     * To get quantity of calls served by cache
+     *
+     * @return value
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * To get quantity of calls which result wasn't in cache
+     *
+     * @return value
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * To get quantity of results thrown away because cache is full
+     *
+     * @return value
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * To get quantity of results thrown away because they are out of date
+     *
+     * @return value
+     */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * To get quantity of cached results
+     *
+     * @return value
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * To get estimated size of cached results
+     *
+     * @return value in bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * To get part of calls served by cache
+     *
+     * @return value from 0 to 1
+     */
+    public double getHitRate() {
+        final long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,75 @@
+package oleg.sopilnyak.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations with log-linear buckets (like HDR histogram)<BR/>
+ * Every power of two is split to 16 buckets, so relative error of percentile is less then 1/16<BR/>
+ * Buckets are striped counters, so recording from many threads does not contend
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // the biggest tracked value (about 18 minutes in nanoseconds), bigger values are counted in the last bucket
+    private static final int MAXIMUM_EXPONENT = 40;
+    static final int BUCKETS = (MAXIMUM_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * To record the duration
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void record(long nanos) {
+        final long value = Math.max(nanos, 0L);
+        buckets[index(value)].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * To get current state of histogram
+     *
+     * @return snapshot of histogram
+     */
+    public LatencySnapshot snapshot() {
+        final long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return new LatencySnapshot(counts, sum.sum(), max.get());
+    }
+
+    // index of bucket for value
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAXIMUM_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // the biggest value counted in bucket
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKETS - 1;
+        final long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
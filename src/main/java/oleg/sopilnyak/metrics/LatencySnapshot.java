@@ -0,0 +1,91 @@
+package oleg.sopilnyak.metrics;
+
+/**
+ * Immutable state of latency histogram, durations are in nanoseconds
+ */
+public class LatencySnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    LatencySnapshot(long[] counts, long sum, long max) {
+        long total = 0;
+        for (final long bucket : counts) {
+            total += bucket;
+        }
+        this.counts = counts;
+        this.count = total;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * To get quantity of recorded durations
+     *
+     * @return value
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * To get average duration
+     *
+     * @return value in nanoseconds
+     */
+    public long getMean() {
+        return count == 0 ? 0L : sum / count;
+    }
+
+    /**
+     * To get the longest duration
+     *
+     * @return value in nanoseconds
+     */
+    public long getMax() {
+        return max;
+    }
+
+    public long getP50() {
+        return percentile(50.0);
+    }
+
+    public long getP90() {
+        return percentile(90.0);
+    }
+
+    public long getP99() {
+        return percentile(99.0);
+    }
+
+    public long getP999() {
+        return percentile(99.9);
+    }
+
+    /**
+     * To get duration which is not exceeded by percent of recorded durations
+     *
+     * @param percent percent of durations (0..100)
+     * @return value in nanoseconds
+     */
+    public long percentile(double percent) {
+        if (count == 0) {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(count * Math.min(percent, 100.0) / 100.0));
+        long passed = 0;
+        for (int i = 0; i < counts.length; i++) {
+            passed += counts[i];
+            if (passed >= rank) {
+                return Math.min(LatencyHistogram.highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencySnapshot{count=" + count + ", mean=" + getMean() + ", p50=" + getP50() + ", p99=" + getP99() + ", max=" + max + '}';
+    }
+}
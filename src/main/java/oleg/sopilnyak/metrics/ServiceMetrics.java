@@ -0,0 +1,95 @@
+package oleg.sopilnyak.metrics;
+
+import javax.management.MXBean;
+import java.util.Map;
+
+/**
+ * Metrics of service instances pool, durations are in nanoseconds<BR/>
+ * It is exported to JMX as MXBean
+ */
+@MXBean
+public interface ServiceMetrics {
+    /**
+     * Get id of service
+     *
+     * @return service-id
+     */
+    String getServiceId();
+
+    /**
+     * To get quantity of idle service instances
+     *
+     * @return value
+     */
+    int getAvailableInstances();
+
+    /**
+     * To get quantity of service instances in usage
+     *
+     * @return value
+     */
+    int getInUseInstances();
+
+    /**
+     * To get quantity of callers waiting for free instance
+     *
+     * @return value
+     */
+    int getWaitingCalls();
+
+    /**
+     * To get how many times callers found pool exhausted
+     *
+     * @return value
+     */
+    long getExhaustedCount();
+
+    /**
+     * To get quantity of broken service instances which were thrown away
+     *
+     * @return value
+     */
+    long getDiscardedCount();
+
+    /**
+     * To get quantity of calls which shared execution of the same running call
+     *
+     * @return value
+     */
+    long getCoalescedCount();
+
+    /**
+     * To get statistics of cache of operations results
+     *
+     * @return cache snapshot
+     */
+    CacheSnapshot getResultCache();
+
+    /**
+     * To get durations of taking free service instance
+     *
+     * @return histogram snapshot
+     */
+    LatencySnapshot getCheckoutWait();
+
+    /**
+     * To get durations of service instance creation
+     *
+     * @return histogram snapshot
+     */
+    LatencySnapshot getInstanceCreation();
+
+    /**
+     * To get durations of operations methods execution
+     *
+     * @return operation-name -> histogram snapshot
+     */
+    Map<String, LatencySnapshot> getOperationLatency();
+
+    /**
+     * To get quantities of failed calls
+     *
+     * @return class-name of exception -> quantity
+     */
+    Map<String, Long> getErrorCounts();
+}
@@ -0,0 +1,69 @@
+package oleg.sopilnyak.pacing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pacer which lets out the actions one by one with fixed interval between them
+ */
+public class LeakyBucketPacer implements Pacer {
+    private final long intervalNanos;
+    // the time (System.nanoTime) of next permitted action
+    private final AtomicLong nextPermit;
+
+    public LeakyBucketPacer(long interval, TimeUnit unit) {
+        intervalNanos = unit.toNanos(interval);
+        nextPermit = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * To make pacer for interval, or pacer without delays if interval is not positive
+     *
+     * @param interval duration between actions
+     * @param unit     unit of interval
+     * @return pacer instance
+     */
+    public static Pacer of(long interval, TimeUnit unit) {
+        return interval > 0L ? new LeakyBucketPacer(interval, unit) : NONE;
+    }
+
+    /**
+     * To reserve the permit for the action
+     *
+     * @return delay in nanoseconds which caller should wait before the action
+     */
+    @Override
+    public long reserve() {
+        while (true) {
+            final long now = System.nanoTime();
+            final long next = nextPermit.get();
+            final long permitted = next - now > 0L ? next : now;
+            if (nextPermit.compareAndSet(next, permitted + intervalNanos)) {
+                return permitted - now;
+            }
+        }
+    }
+
+    /**
+     * To take the permit for the action if it is available immediately
+     *
+     * @return true if the action is permitted right now
+     */
+    @Override
+    public boolean tryAcquire() {
+        while (true) {
+            final long now = System.nanoTime();
+            final long next = nextPermit.get();
+            if (next - now > 0L) {
+                return false;
+            }
+            if (nextPermit.compareAndSet(next, now + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+}
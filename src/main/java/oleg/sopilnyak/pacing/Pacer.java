@@ -0,0 +1,50 @@
+package oleg.sopilnyak.pacing;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Policy of pacing the actions (remote calls, service instance creation)<BR/>
+ * Pacer does not lock anything, it only reserves time when caller may do the action
+ */
+public interface Pacer {
+    /**
+     * Pacer which never delays the action
+     */
+    Pacer NONE = new Pacer() {
+        @Override
+        public long reserve() {
+            return 0L;
+        }
+
+        @Override
+        public boolean tryAcquire() {
+            return true;
+        }
+    };
+
+    /**
+     * To reserve the permit for the action
+     *
+     * @return delay in nanoseconds which caller should wait before the action
+     */
+    long reserve();
+
+    /**
+     * To take the permit for the action if it is available immediately
+     *
+     * @return true if the action is permitted right now
+     */
+    boolean tryAcquire();
+
+    /**
+     * To reserve the permit and wait for it
+     *
+     * @throws InterruptedException if waiting thread is interrupted
+     */
+    default void acquire() throws InterruptedException {
+        final long delay = reserve();
+        if (delay > 0L) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        }
+    }
+}
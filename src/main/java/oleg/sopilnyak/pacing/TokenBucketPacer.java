@@ -0,0 +1,76 @@
+package oleg.sopilnyak.pacing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pacer which permits the actions with average rate and lets the burst of actions after idle time
+ * (token bucket in form of generic cell rate algorithm)
+ */
+public class TokenBucketPacer implements Pacer {
+    private final double permitsPerSecond;
+    private final int burst;
+    // duration between permits for average rate
+    private final long intervalNanos;
+    // how far the bucket can run ahead of average rate
+    private final long toleranceNanos;
+    // theoretical arrival time (System.nanoTime) of next action
+    private final AtomicLong arrival;
+
+    public TokenBucketPacer(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0.0 || burst < 1) {
+            throw new IllegalArgumentException("Wrong rate " + permitsPerSecond + " or burst " + burst);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        toleranceNanos = intervalNanos * (burst - 1);
+        arrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * To reserve the permit for the action
+     *
+     * @return delay in nanoseconds which caller should wait before the action
+     */
+    @Override
+    public long reserve() {
+        while (true) {
+            final long now = System.nanoTime();
+            final long expected = arrival.get();
+            final long base = expected - now > 0L ? expected : now;
+            if (arrival.compareAndSet(expected, base + intervalNanos)) {
+                final long delay = base - toleranceNanos - now;
+                return delay > 0L ? delay : 0L;
+            }
+        }
+    }
+
+    /**
+     * To take the permit for the action if it is available immediately
+     *
+     * @return true if the action is permitted right now
+     */
+    @Override
+    public boolean tryAcquire() {
+        while (true) {
+            final long now = System.nanoTime();
+            final long expected = arrival.get();
+            final long base = expected - now > 0L ? expected : now;
+            if (base - toleranceNanos - now > 0L) {
+                return false;
+            }
+            if (arrival.compareAndSet(expected, base + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+}
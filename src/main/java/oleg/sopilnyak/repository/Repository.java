@@ -5,6 +5,7 @@ import oleg.sopilnyak.exception.NoRegisteredServiceException;
 import oleg.sopilnyak.exception.ServiceAlreadyRegisteredException;
 import oleg.sopilnyak.exception.ServiceCallException;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 /**
@@ -54,6 +55,15 @@ public interface Repository {
      */
     void register(ServiceMeta metaInfo, Function builder) throws ServiceAlreadyRegisteredException, ServiceCallException;
 
+    /**
+     * Register service in services registry and start it without waiting for instances
+     * @param metaInfo service meta information
+     * @param builder builder of service instance
+     * @return future which is completed when service has minimum instances
+     * @throws ServiceAlreadyRegisteredException when service already registered
+     */
+    CompletableFuture<ServiceImpl> registerAsync(ServiceMeta metaInfo, Function<?, ?> builder) throws ServiceAlreadyRegisteredException;
+
     /**
      * To get service builder for registration
      * @return service meta-information builder
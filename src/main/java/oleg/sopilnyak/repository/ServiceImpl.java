@@ -2,6 +2,9 @@ package oleg.sopilnyak.repository;
 
 import oleg.sopilnyak.call.Call;
 import oleg.sopilnyak.exception.OperationNotFoundException;
+import oleg.sopilnyak.metrics.ServiceMetrics;
+
+import java.util.List;
 
 /**
  * Entity to keep operations of service
@@ -25,12 +28,26 @@ public interface ServiceImpl {
     Call getOperationCall(String name) throws OperationNotFoundException;
 
     /**
-     * To get array of operations execute enititie
+     * To get array of operations execute enitities
      *
      * @return array of calls
      */
     Call[] getCallOperations();
 
+    /**
+     * To get operations execute entities without copying
+     *
+     * @return immutable list of calls
+     */
+    List<Call> getCallOperationList();
+
+    /**
+     * To get metrics of service instances and operations calls
+     *
+     * @return metrics of service
+     */
+    ServiceMetrics getMetrics();
+
     /**
      * To finish up the work of service
      */
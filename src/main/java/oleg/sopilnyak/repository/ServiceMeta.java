@@ -59,5 +59,45 @@ public interface ServiceMeta {
          * @return method's instance
          */
         Method getOperationMethod();
+
+        /**
+         * Maximum quantity of concurrent calls of operation (bulkhead inside the pool)
+         * @return value (0 - calls are limited by pool size only)
+         */
+        default int getMaxConcurrentCalls() {
+            return 0;
+        }
+
+        /**
+         * Maximum quantity of callers waiting for turn when concurrent calls are at maximum
+         * @return value (0 - extra call is rejected at once)
+         */
+        default int getMaxWaitingCalls() {
+            return 0;
+        }
+
+        /**
+         * Flag of sharing one execution between concurrent calls with equal parameters
+         * @return true if operation may be coalesced (it's read-only operation)
+         */
+        default boolean isCoalesced() {
+            return false;
+        }
+
+        /**
+         * Time to live of cached result of idempotent operation
+         * @return value in milliseconds (0 - result isn't cached)
+         */
+        default long getCacheTtlValue() {
+            return 0;
+        }
+
+        /**
+         * Period of background refresh of the latest result of parameterless operation
+         * @return value in milliseconds (0 - every call is executed)
+         */
+        default long getRefreshIntervalValue() {
+            return 0;
+        }
     }
 }
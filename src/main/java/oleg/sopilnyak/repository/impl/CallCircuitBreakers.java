@@ -0,0 +1,58 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.circuit.CircuitBreaker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Circuit breakers of service operations, every operation has own breaker,
+ * so failing operation doesn't reject calls of healthy ones
+ */
+class CallCircuitBreakers {
+    private final String serviceId;
+    // settings of breakers for all operations of service (null - no breakers)
+    private volatile CircuitBreaker.Settings serviceSettings;
+    // settings of breakers of particular operations (operation-name -> settings)
+    private final Map<String, CircuitBreaker.Settings> operationSettings = new ConcurrentHashMap<>();
+    // breakers of operations (operation-name -> breaker)
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    CallCircuitBreakers(String serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    void setServiceSettings(CircuitBreaker.Settings settings) {
+        this.serviceSettings = settings;
+        breakers.clear();
+    }
+
+    void setOperationSettings(String operationName, CircuitBreaker.Settings settings) {
+        if (settings == null) {
+            operationSettings.remove(operationName);
+        } else {
+            operationSettings.put(operationName, settings);
+        }
+        breakers.remove(operationName);
+    }
+
+    /**
+     * To get circuit breaker of operation
+     *
+     * @param operationName the name of operation
+     * @return breaker or null if calls of operation are not guarded
+     */
+    CircuitBreaker breaker(String operationName) {
+        final CircuitBreaker breaker = breakers.get(operationName);
+        if (breaker != null) {
+            return breaker;
+        }
+        final CircuitBreaker.Settings operation = operationSettings.isEmpty() ? null : operationSettings.get(operationName);
+        final CircuitBreaker.Settings settings = operation == null ? serviceSettings : operation;
+        if (settings == null) {
+            return null;
+        }
+        return breakers.computeIfAbsent(operationName, name -> new CircuitBreaker(serviceId + "." + name, settings));
+    }
+}
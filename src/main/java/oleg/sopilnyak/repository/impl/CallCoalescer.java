@@ -0,0 +1,77 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.exception.ServiceCallException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Single-flight of operation calls, concurrent calls with equal actual parameters share one execution<BR/>
+ * The first caller executes the operation, others wait for its result or exception
+ */
+final class CallCoalescer {
+    // running executions (call -> result of execution)
+    private final ConcurrentMap<CallKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // action for the call joined to running one
+    private final Runnable joined;
+
+    CallCoalescer(Runnable joined) {
+        this.joined = joined;
+    }
+
+    /**
+     * To execute operation call or to join the same running call
+     *
+     * @param key       the call
+     * @param execution execution of operation
+     * @return result of operation
+     * @throws ServiceCallException thrown by execution
+     */
+    Object execute(CallKey key, Execution execution) throws ServiceCallException {
+        final CompletableFuture<Object> own = new CompletableFuture<>();
+        final CompletableFuture<Object> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            joined.run();
+            return join(running);
+        }
+        try {
+            final Object result = execution.execute();
+            own.complete(result);
+            return result;
+        } catch (ServiceCallException | RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    // private methods
+    private static Object join(CompletableFuture<Object> running) throws ServiceCallException {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ServiceCallException) {
+                throw (ServiceCallException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ServiceCallException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceCallException("Waiting for the same running call is interrupted.", e);
+        }
+    }
+
+    // inner classes
+    interface Execution {
+        Object execute() throws ServiceCallException;
+    }
+}
@@ -0,0 +1,67 @@
+package oleg.sopilnyak.repository.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory of executors for asynchronous calls of services pool
+ */
+final class CallExecutors {
+    private static final Logger log = LoggerFactory.getLogger(CallExecutors.class);
+
+    private CallExecutors() {
+    }
+
+    /**
+     * To make executor for particular execution mode
+     *
+     * @param mode    execution mode
+     * @param prefix  prefix of threads names
+     * @param threads quantity of platform threads
+     * @return executor service
+     */
+    static ExecutorService executor(ExecutionMode mode, String prefix, int threads) {
+        if (mode == ExecutionMode.VIRTUAL_THREADS) {
+            final ExecutorService executor = virtualThreads(prefix);
+            if (executor != null) {
+                return executor;
+            }
+            log.warn("Virtual threads are not supported by Java {}, platform threads are used.", System.getProperty("java.version"));
+        }
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), daemonThreads(prefix));
+    }
+
+    /**
+     * To make factory of daemon platform threads
+     *
+     * @param prefix prefix of threads names
+     * @return threads factory
+     */
+    static ThreadFactory daemonThreads(String prefix) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // private methods
+    // Thread.ofVirtual().name(prefix, 1).factory() via reflection, to build the library by Java 8
+    private static ExecutorService virtualThreads(String prefix) {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Method name = builderClass.getMethod("name", String.class, long.class);
+            final Object named = name.invoke(builder, prefix, 1L);
+            final ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(named);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
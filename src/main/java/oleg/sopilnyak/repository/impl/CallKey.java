@@ -0,0 +1,40 @@
+package oleg.sopilnyak.repository.impl;
+
+import java.util.Arrays;
+
+/**
+ * Key of operation call, calls are equal if they have the same operation and equal actual parameters
+ */
+final class CallKey {
+    private final String operationName;
+    private final Object[] arguments;
+    private final int hash;
+
+    CallKey(String operationName, Object[] arguments) {
+        this.operationName = operationName;
+        this.arguments = arguments;
+        this.hash = 31 * operationName.hashCode() + Arrays.deepHashCode(arguments);
+    }
+
+    Object[] getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CallKey)) return false;
+        final CallKey key = (CallKey) o;
+        return hash == key.hash && operationName.equals(key.operationName) && Arrays.deepEquals(arguments, key.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return operationName + Arrays.deepToString(arguments);
+    }
+}
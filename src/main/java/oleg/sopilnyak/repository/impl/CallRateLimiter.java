@@ -0,0 +1,68 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.exception.RateLimitExceededException;
+import oleg.sopilnyak.exception.ServiceCallException;
+import oleg.sopilnyak.pacing.Pacer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rate limiter of service remote calls with overrides for particular operations
+ */
+class CallRateLimiter {
+    private final String serviceId;
+    // pacer for all operations of service
+    private volatile Pacer servicePacer = Pacer.NONE;
+    // pacers of particular operations (operation-name -> pacer)
+    private final Map<String, Pacer> operationPacers = new ConcurrentHashMap<>();
+    // if false, call is rejected instead of waiting for permit
+    private volatile boolean blocking = true;
+
+    CallRateLimiter(String serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    void setServicePacer(Pacer pacer) {
+        this.servicePacer = pacer;
+    }
+
+    void setOperationPacer(String operationName, Pacer pacer) {
+        if (pacer == null) {
+            operationPacers.remove(operationName);
+        } else {
+            operationPacers.put(operationName, pacer);
+        }
+    }
+
+    void setBlocking(boolean blocking) {
+        this.blocking = blocking;
+    }
+
+    /**
+     * To get permit for call of operation
+     *
+     * @param operationName the name of called operation
+     * @throws RateLimitExceededException if limiter is not blocking and permit is not available
+     * @throws ServiceCallException       if waiting for permit is interrupted
+     */
+    void acquire(String operationName) throws ServiceCallException {
+        final Pacer operationPacer = operationPacers.isEmpty() ? null : operationPacers.get(operationName);
+        final Pacer pacer = operationPacer == null ? servicePacer : operationPacer;
+        if (pacer == Pacer.NONE) {
+            return;
+        }
+        if (!blocking) {
+            if (!pacer.tryAcquire()) {
+                throw new RateLimitExceededException("Rate limit of " + serviceId + " is exceeded", operationName);
+            }
+            return;
+        }
+        try {
+            pacer.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceCallException("Pacing of " + serviceId + " is interrupted.", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package oleg.sopilnyak.repository.impl;
+
+/**
+ * Type of threads which execute asynchronous calls of services pool
+ */
+public enum ExecutionMode {
+    /**
+     * Calls are executed by fixed quantity (maximumInstances) of platform threads, pending calls wait in queue
+     */
+    PLATFORM_THREADS,
+    /**
+     * Every call is executed by own virtual thread (Java 21+), calls wait for free instance in parked virtual threads
+     */
+    VIRTUAL_THREADS
+}
@@ -0,0 +1,259 @@
+package oleg.sopilnyak.repository.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Lock-free container of service instances<BR/>
+ * Every instance lives in own slot, slot's state flag is changed by CAS operation<BR/>
+ * Idle slots are kept in lock-free stack, so checkout takes the last used instance without scanning of slots
+ * and surplus instances stay idle to be thrown away
+ */
+class InstanceSlots {
+    // slot has no instance
+    static final int EMPTY = 0;
+    // slot keeps instance ready to use
+    static final int IDLE = 1;
+    // instance of slot is used by caller
+    static final int BUSY = 2;
+    // slot is reserved for instance which is building now
+    static final int RESERVED = 3;
+
+    private final Slot[] slots;
+    // slots which became idle, the slot may be taken by sweeper while it's in the stack (such slot is skipped)
+    private final ConcurrentLinkedDeque<Slot> idleSlots = new ConcurrentLinkedDeque<>();
+    // quantity of not empty slots
+    private final AtomicInteger size = new AtomicInteger();
+    // quantity of slots with idle instances
+    private final AtomicInteger idle = new AtomicInteger();
+    // quantity of slots with busy instances
+    private final AtomicInteger busy = new AtomicInteger();
+
+    InstanceSlots(int capacity) {
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    /**
+     * To take idle instance for exclusive usage
+     *
+     * @return busy slot or null if there is no idle instance
+     */
+    Slot checkout() {
+        Slot slot;
+        while ((slot = idleSlots.pollFirst()) != null) {
+            // flag is cleared before state check, so slot which becomes idle again is pushed back
+            slot.stacked.set(false);
+            if (slot.state.compareAndSet(IDLE, BUSY)) {
+                idle.decrementAndGet();
+                busy.incrementAndGet();
+                return slot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * To return used instance back to container
+     *
+     * @param slot busy slot
+     * @return true if instance became idle
+     */
+    boolean checkin(Slot slot) {
+        slot.lastUsed = System.nanoTime();
+        if (slot.state.compareAndSet(BUSY, IDLE)) {
+            busy.decrementAndGet();
+            idle.incrementAndGet();
+            push(slot);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * To reserve empty slot for new instance
+     *
+     * @return reserved slot or null if container is full
+     */
+    Slot reserve() {
+        int current;
+        do {
+            current = size.get();
+            if (current >= slots.length) {
+                return null;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        while (true) {
+            for (final Slot slot : slots) {
+                if (slot.state.get() == EMPTY && slot.state.compareAndSet(EMPTY, RESERVED)) {
+                    return slot;
+                }
+            }
+        }
+    }
+
+    /**
+     * To put built instance to reserved slot
+     *
+     * @param slot     reserved slot
+     * @param instance built service instance
+     */
+    void fill(Slot slot, Object instance) {
+        slot.instance = instance;
+        busy.incrementAndGet();
+        slot.state.set(BUSY);
+    }
+
+    /**
+     * To release reserved or busy slot, instance of slot is thrown away
+     *
+     * @param slot slot to release
+     */
+    void release(Slot slot) {
+        final int state = slot.state.get();
+        if ((state == RESERVED || state == BUSY) && slot.state.compareAndSet(state, EMPTY)) {
+            if (state == BUSY) {
+                busy.decrementAndGet();
+            }
+            slot.instance = null;
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * To throw away instances which are idle for long time
+     *
+     * @param idleSince the moment (System.nanoTime()) after which instance should be used to stay
+     * @param limit     maximum quantity of thrown away instances
+     * @return thrown away instances
+     */
+    List<Object> retireIdle(long idleSince, int limit) {
+        final List<Object> retired = new ArrayList<>();
+        for (final Slot slot : slots) {
+            if (retired.size() >= limit) {
+                break;
+            }
+            if (slot.state.get() == IDLE && slot.lastUsed - idleSince < 0 && slot.state.compareAndSet(IDLE, RESERVED)) {
+                idle.decrementAndGet();
+                retired.add(slot.instance);
+                slot.instance = null;
+                slot.state.set(EMPTY);
+                size.decrementAndGet();
+            }
+        }
+        return retired;
+    }
+
+    /**
+     * To throw away idle instances which fail the check<BR/>
+     * Instance is not available for checkout while it's checked
+     *
+     * @param healthy check of instance, returns false for broken instance
+     * @return thrown away instances
+     */
+    List<Object> retireInvalid(Predicate<Object> healthy) {
+        final List<Object> retired = new ArrayList<>();
+        for (final Slot slot : slots) {
+            if (slot.state.get() == IDLE && slot.state.compareAndSet(IDLE, RESERVED)) {
+                idle.decrementAndGet();
+                if (healthy.test(slot.instance)) {
+                    idle.incrementAndGet();
+                    slot.state.set(IDLE);
+                    // checkout could skip the slot while it was checked
+                    push(slot);
+                } else {
+                    retired.add(slot.instance);
+                    slot.instance = null;
+                    slot.state.set(EMPTY);
+                    size.decrementAndGet();
+                }
+            }
+        }
+        return retired;
+    }
+
+    /**
+     * To get quantity of idle instances
+     *
+     * @return value
+     */
+    int available() {
+        return idle.get();
+    }
+
+    /**
+     * To get quantity of instances in usage
+     *
+     * @return value
+     */
+    int inUse() {
+        return busy.get();
+    }
+
+    /**
+     * To check is there empty slot for new instance
+     *
+     * @return true if all slots are taken
+     */
+    boolean isFull() {
+        return size.get() >= slots.length;
+    }
+
+    /**
+     * To get quantity of taken slots
+     *
+     * @return value
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * To get snapshot of instances in particular state
+     *
+     * @param state state of slot
+     * @return list of instances
+     */
+    List<Object> instances(int state) {
+        final List<Object> instances = new ArrayList<>();
+        for (final Slot slot : slots) {
+            final Object instance = slot.instance;
+            if (slot.state.get() == state && instance != null) {
+                instances.add(instance);
+            }
+        }
+        return instances;
+    }
+
+    // private methods
+    private void push(Slot slot) {
+        // slot which is in the stack already keeps its place
+        if (slot.stacked.compareAndSet(false, true)) {
+            idleSlots.offerFirst(slot);
+        }
+    }
+
+    // inner classes
+    static class Slot {
+        private final AtomicInteger state = new AtomicInteger(EMPTY);
+        // flag of slot presence in the stack of idle slots
+        private final AtomicBoolean stacked = new AtomicBoolean();
+        private volatile Object instance;
+        // the moment (System.nanoTime()) when instance was used last time
+        private volatile long lastUsed;
+
+        Object getInstance() {
+            return instance;
+        }
+
+        boolean isReserved() {
+            return state.get() == RESERVED;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.exception.ServiceCallException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Latest result of parameterless operation which is refreshed in background,
+ * callers get the current snapshot without remote call<BR/>
+ * While there is no result, concurrent callers share one remote call to make it
+ */
+final class MaterializedResult {
+    // period of refresh, the result is stale after it
+    private final long refreshNanos;
+    private volatile Snapshot snapshot;
+    // flag of running refresh
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    // single-flight of making the first result
+    private final CallCoalescer first;
+    private final CallKey key;
+
+    MaterializedResult(String operationName, long refreshIntervalValue, Runnable joined) {
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshIntervalValue);
+        this.first = new CallCoalescer(joined);
+        this.key = new CallKey(operationName, new Object[0]);
+    }
+
+    long getRefreshIntervalValue() {
+        return TimeUnit.NANOSECONDS.toMillis(refreshNanos);
+    }
+
+    /**
+     * To check is there a result of operation
+     *
+     * @return true if result is made
+     */
+    boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * To get the latest result of operation
+     *
+     * @return result
+     */
+    Object get() {
+        return snapshot.value;
+    }
+
+    /**
+     * To make the result if there is no one, concurrent callers wait for the same execution
+     *
+     * @param execution remote call of operation
+     * @return result
+     * @throws ServiceCallException thrown by execution
+     */
+    Object make(CallCoalescer.Execution execution) throws ServiceCallException {
+        return first.execute(key, () -> {
+            final Snapshot current = snapshot;
+            if (current != null) {
+                // made by previous execution
+                return current.value;
+            }
+            final Object value = execution.execute();
+            snapshot = new Snapshot(value, System.nanoTime());
+            return value;
+        });
+    }
+
+    /**
+     * To check is the result older than refresh period
+     *
+     * @param now current System.nanoTime()
+     * @return true if the result should be refreshed
+     */
+    boolean isStale(long now) {
+        final Snapshot current = snapshot;
+        return current == null || now - current.madeAt >= refreshNanos;
+    }
+
+    /**
+     * To check is the result older than two refresh periods, so refresh cannot be postponed
+     *
+     * @param now current System.nanoTime()
+     * @return true if the result must be refreshed
+     */
+    boolean isOverdue(long now) {
+        final Snapshot current = snapshot;
+        return current == null || now - current.madeAt >= 2 * refreshNanos;
+    }
+
+    /**
+     * To start refresh of result
+     *
+     * @return false if refresh is running already
+     */
+    boolean startRefresh() {
+        return refreshing.compareAndSet(false, true);
+    }
+
+    /**
+     * To finish refresh
+     *
+     * @param value new result of operation
+     */
+    void refreshed(Object value) {
+        snapshot = new Snapshot(value, System.nanoTime());
+        refreshing.set(false);
+    }
+
+    /**
+     * To finish failed refresh, the previous result stays
+     */
+    void refreshFailed() {
+        refreshing.set(false);
+    }
+
+    /**
+     * To throw away the result
+     */
+    void clear() {
+        snapshot = null;
+        refreshing.set(false);
+    }
+
+    // inner classes
+    private static final class Snapshot {
+        private final Object value;
+        // the moment (System.nanoTime()) when result is made
+        private final long madeAt;
+
+        private Snapshot(Object value, long madeAt) {
+            this.value = value;
+            this.madeAt = madeAt;
+        }
+    }
+}
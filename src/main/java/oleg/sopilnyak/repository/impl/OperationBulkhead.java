@@ -0,0 +1,76 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.exception.BulkheadFullException;
+import oleg.sopilnyak.exception.ServiceCallException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead of operation calls inside the pool, it limits concurrent calls of operation,
+ * so heavy operation cannot take all instances of service
+ */
+final class OperationBulkhead {
+    private final String serviceId;
+    private final String operationName;
+    private final int maxConcurrentCalls;
+    private final int maxWaitingCalls;
+    // permits of concurrent calls
+    private final Semaphore permits;
+    // quantity of callers waiting for permit
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    OperationBulkhead(String serviceId, String operationName, int maxConcurrentCalls, int maxWaitingCalls) {
+        this.serviceId = serviceId;
+        this.operationName = operationName;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitingCalls = Math.max(0, maxWaitingCalls);
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    /**
+     * To take place among concurrent calls of operation
+     *
+     * @param timeoutValue maximum time in milliseconds to wait for place (0 - wait forever)
+     * @throws BulkheadFullException if there is no place for call or waiting caller
+     * @throws ServiceCallException  if waiting for place is interrupted
+     */
+    void enter(long timeoutValue) throws ServiceCallException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaitingCalls) {
+            waiting.decrementAndGet();
+            throw new BulkheadFullException("Too many calls of " + operationName + " of service " + serviceId, serviceId, operationName);
+        }
+        try {
+            if (timeoutValue <= 0) {
+                permits.acquire();
+            } else if (!permits.tryAcquire(timeoutValue, TimeUnit.MILLISECONDS)) {
+                throw new BulkheadFullException("No turn for call of " + operationName + " of service " + serviceId, serviceId, operationName);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceCallException("Waiting for turn of " + operationName + " is interrupted.", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * To leave place of finished call
+     */
+    void leave() {
+        permits.release();
+    }
+
+    /**
+     * To get quantity of running calls
+     *
+     * @return value
+     */
+    int running() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+}
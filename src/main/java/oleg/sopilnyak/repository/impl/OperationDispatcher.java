@@ -0,0 +1,152 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.exception.OperationParameterTypeIsInvalidException;
+import oleg.sopilnyak.repository.ServiceMeta;
+import org.springframework.util.ObjectUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Dispatch table of operation overloads, it is resolved once for operation call<BR/>
+ * Overload for actual parameters is chosen by classes of first and second parameters, so resolutions are cached by these classes
+ */
+final class OperationDispatcher {
+    // key of second parameter for call with one parameter
+    private static final Class<?> ABSENT = Absent.class;
+    // key of second parameter which is empty
+    private static final Class<?> EMPTY = Empty.class;
+    // resolution when there is no suitable overload
+    private static final Overload NONE = new Overload(null, null);
+
+    private final String name;
+    private final Overload[] overloads;
+    // the only overload of operation
+    private final Overload single;
+    // overload for call without parameters
+    private final Overload withoutParameters;
+    // cache of resolved overloads (first parameter class -> second parameter class -> overload)
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Overload>> resolved = new ConcurrentHashMap<>();
+
+    OperationDispatcher(String name, Collection<ServiceMeta.Operation> operations, Map<ServiceMeta.Operation, OperationInvoker> invokers) {
+        this.name = name;
+        this.overloads = operations.stream()
+                .map(operation -> new Overload(operation, invokers.get(operation)))
+                .toArray(Overload[]::new);
+        this.single = overloads.length == 1 ? overloads[0] : null;
+        this.withoutParameters = scan(null, null, 0);
+    }
+
+    /**
+     * To resolve overload for actual parameters
+     *
+     * @param parameters actual parameters of call
+     * @return suitable overload
+     * @throws OperationParameterTypeIsInvalidException if there is no suitable overload
+     */
+    Overload resolve(Object[] parameters) throws OperationParameterTypeIsInvalidException {
+        switch (parameters.length) {
+            case 0:
+                return resolve(null, null, 0);
+            case 1:
+                return resolve(parameters[0], null, 1);
+            default:
+                return resolve(parameters[0], parameters[1], 2);
+        }
+    }
+
+    /**
+     * To resolve overload for actual parameters
+     *
+     * @param first  first actual parameter
+     * @param second second actual parameter
+     * @param count  quantity of actual parameters (0, 1 or 2 for two and more)
+     * @return suitable overload
+     * @throws OperationParameterTypeIsInvalidException if there is no suitable overload
+     */
+    Overload resolve(Object first, Object second, int count) throws OperationParameterTypeIsInvalidException {
+        if (count == 0) {
+            return found(withoutParameters);
+        }
+        if (single != null) {
+            return found(single.isSuit(first, second, count) ? single : NONE);
+        }
+        final Class<?> secondKey = count == 1 ? ABSENT : ObjectUtils.isEmpty(second) ? EMPTY : second.getClass();
+        ConcurrentMap<Class<?>, Overload> bySecond = resolved.get(first.getClass());
+        if (bySecond == null) {
+            bySecond = resolved.computeIfAbsent(first.getClass(), key -> new ConcurrentHashMap<>());
+        }
+        Overload overload = bySecond.get(secondKey);
+        if (overload == null) {
+            overload = scan(first, second, count);
+            bySecond.putIfAbsent(secondKey, overload);
+        }
+        return found(overload);
+    }
+
+    // private methods
+    private Overload scan(Object first, Object second, int count) {
+        for (final Overload overload : overloads) {
+            if (overload.isSuit(first, second, count)) {
+                return overload;
+            }
+        }
+        return NONE;
+    }
+
+    private Overload found(Overload overload) throws OperationParameterTypeIsInvalidException {
+        if (overload == NONE) {
+            throw new OperationParameterTypeIsInvalidException("Not found", name, 0);
+        }
+        return overload;
+    }
+
+    // inner classes
+    static final class Overload {
+        private final ServiceMeta.Operation operation;
+        private final OperationInvoker invoker;
+        private final Class<?> parameterClass;
+        // class of first extra parameter or null if operation has no extra parameters
+        private final Class<?> extraClass;
+
+        private Overload(ServiceMeta.Operation operation, OperationInvoker invoker) {
+            this.operation = operation;
+            this.invoker = invoker;
+            this.parameterClass = operation == null ? Void.class : operation.getParameterClass();
+            final Class<?>[] extraClasses = operation == null ? new Class<?>[0] : operation.getExtraParameterClasses();
+            this.extraClass = ObjectUtils.isEmpty(extraClasses) ? null : extraClasses[0];
+        }
+
+        ServiceMeta.Operation getOperation() {
+            return operation;
+        }
+
+        OperationInvoker getInvoker() {
+            return invoker;
+        }
+
+        private boolean isSuit(Object first, Object second, int count) {
+            if (count == 0 || parameterClass == Void.class) {
+                return parameterClass == Void.class;
+            }
+            if (!parameterClass.isInstance(first)) {
+                return false;
+            }
+            if (count == 1) {
+                return true;
+            }
+            if (ObjectUtils.isEmpty(second)) {
+                return extraClass == null;
+            }
+            return extraClass == null || extraClass.isInstance(second);
+        }
+    }
+
+    private static final class Absent {
+    }
+
+    private static final class Empty {
+    }
+}
@@ -0,0 +1,182 @@
+package oleg.sopilnyak.repository.impl;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invoker of service operation method, bound once at import of operation<BR/>
+ * For public facade methods with up to two parameters invoker is the class generated by LambdaMetafactory,
+ * so call is direct interface invocation, otherwise it is generic method handle<BR/>
+ * Calls with up to two actual parameters pass them without intermediate arrays
+ */
+final class OperationInvoker {
+    private final int parameterCount;
+    private final Invoker0 invoker0;
+    private final Invoker1 invoker1;
+    private final Invoker2 invoker2;
+    // (Object target, Object parameter, ...)Object with parameterCount of parameters
+    private final MethodHandle generic;
+    // (Object target, Object[] parameters)Object
+    private final MethodHandle spreader;
+
+    private OperationInvoker(int parameterCount, Object generated, MethodHandle generic, MethodHandle spreader) {
+        this.parameterCount = parameterCount;
+        this.invoker0 = generated instanceof Invoker0 ? (Invoker0) generated : null;
+        this.invoker1 = generated instanceof Invoker1 ? (Invoker1) generated : null;
+        this.invoker2 = generated instanceof Invoker2 ? (Invoker2) generated : null;
+        this.generic = generic;
+        this.spreader = spreader;
+    }
+
+    /**
+     * To bind invoker to method of service facade
+     *
+     * @param method method of operation
+     * @return invoker of method
+     * @throws IllegalAccessException if method is not accessible
+     */
+    static OperationInvoker of(Method method) throws IllegalAccessException {
+        try {
+            method.setAccessible(true);
+        } catch (RuntimeException e) {
+            // unreflect will check the access
+        }
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final MethodHandle direct = lookup.unreflect(method);
+        final int parameterCount = method.getParameterCount();
+        final MethodHandle generic = direct.asType(direct.type().generic());
+        final MethodHandle spreader = generic.asSpreader(Object[].class, parameterCount);
+        return new OperationInvoker(parameterCount, generate(lookup, method, direct), generic, spreader);
+    }
+
+    /**
+     * To invoke operation method
+     *
+     * @param target     service instance
+     * @param parameters actual parameters (exactly parameterCount of them)
+     * @return result of method or null for void method
+     * @throws Throwable exception thrown by method
+     */
+    Object invoke(Object target, Object[] parameters) throws Throwable {
+        switch (parameterCount) {
+            case 0:
+                return invoke0(target);
+            case 1:
+                return invoke1(target, parameters[0]);
+            case 2:
+                return invoke2(target, parameters[0], parameters[1]);
+            default:
+                return (Object) spreader.invokeExact(target, parameters);
+        }
+    }
+
+    /**
+     * To invoke operation method without parameters
+     *
+     * @param target service instance
+     * @return result of method or null for void method
+     * @throws Throwable exception thrown by method
+     */
+    Object invoke0(Object target) throws Throwable {
+        if (parameterCount != 0) {
+            throw new IllegalArgumentException("wrong number of arguments");
+        }
+        return invoker0 != null ? invoker0.invoke(target) : (Object) generic.invokeExact(target);
+    }
+
+    /**
+     * To invoke operation method with one parameter (surplus parameter is rejected)
+     *
+     * @param target    service instance
+     * @param parameter actual parameter
+     * @return result of method or null for void method
+     * @throws Throwable exception thrown by method
+     */
+    Object invoke1(Object target, Object parameter) throws Throwable {
+        if (parameterCount == 0) {
+            return invoke0(target);
+        }
+        if (parameterCount != 1) {
+            throw new IllegalArgumentException("wrong number of arguments");
+        }
+        return invoker1 != null ? invoker1.invoke(target, parameter) : (Object) generic.invokeExact(target, parameter);
+    }
+
+    /**
+     * To invoke operation method with two parameters (surplus parameters are rejected)
+     *
+     * @param target    service instance
+     * @param parameter actual parameter
+     * @param extra     actual extra parameter
+     * @return result of method or null for void method
+     * @throws Throwable exception thrown by method
+     */
+    Object invoke2(Object target, Object parameter, Object extra) throws Throwable {
+        if (parameterCount < 2) {
+            return invoke1(target, parameter);
+        }
+        if (parameterCount != 2) {
+            throw new IllegalArgumentException("wrong number of arguments");
+        }
+        return invoker2 != null ? invoker2.invoke(target, parameter, extra) : (Object) generic.invokeExact(target, parameter, extra);
+    }
+
+    int getParameterCount() {
+        return parameterCount;
+    }
+
+    // private methods
+    private static Object generate(MethodHandles.Lookup lookup, Method method, MethodHandle direct) {
+        final Class<?> facade = method.getDeclaringClass();
+        if (method.getReturnType() == void.class || method.getParameterCount() > 2
+                || !Modifier.isPublic(facade.getModifiers()) || !Modifier.isPublic(method.getModifiers())
+                || !isVisible(facade)) {
+            // generated class cannot call the method directly
+            return null;
+        }
+        final Class<?> samClass;
+        final MethodType samType;
+        switch (method.getParameterCount()) {
+            case 0:
+                samClass = Invoker0.class;
+                samType = MethodType.methodType(Object.class, Object.class);
+                break;
+            case 1:
+                samClass = Invoker1.class;
+                samType = MethodType.methodType(Object.class, Object.class, Object.class);
+                break;
+            default:
+                samClass = Invoker2.class;
+                samType = MethodType.methodType(Object.class, Object.class, Object.class, Object.class);
+        }
+        try {
+            final CallSite site = LambdaMetafactory.metafactory(lookup, "invoke", MethodType.methodType(samClass),
+                    samType, direct, direct.type().wrap());
+            return site.getTarget().invoke();
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private static boolean isVisible(Class<?> facade) {
+        try {
+            return Class.forName(facade.getName(), false, OperationInvoker.class.getClassLoader()) == facade;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    // inner classes
+    interface Invoker0 {
+        Object invoke(Object target) throws Throwable;
+    }
+
+    interface Invoker1 {
+        Object invoke(Object target, Object parameter) throws Throwable;
+    }
+
+    interface Invoker2 {
+        Object invoke(Object target, Object parameter, Object extra) throws Throwable;
+    }
+}
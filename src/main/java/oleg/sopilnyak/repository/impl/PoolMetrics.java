@@ -0,0 +1,156 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.metrics.CacheSnapshot;
+import oleg.sopilnyak.metrics.LatencyHistogram;
+import oleg.sopilnyak.metrics.LatencySnapshot;
+import oleg.sopilnyak.metrics.ServiceMetrics;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Metrics recorder of service instances pool
+ */
+class PoolMetrics implements ServiceMetrics {
+    private final String serviceId;
+    private final IntSupplier available;
+    private final IntSupplier inUse;
+    private final IntSupplier waiting;
+    private final Supplier<CacheSnapshot> resultCache;
+    private final LongAdder exhausted = new LongAdder();
+    // quantity of thrown away broken instances
+    private final LongAdder discarded = new LongAdder();
+    // quantity of calls joined to the same running call
+    private final LongAdder coalesced = new LongAdder();
+    // total time of service instances usage
+    private final LongAdder busy = new LongAdder();
+    private final LatencyHistogram checkoutWait = new LatencyHistogram();
+    private final LatencyHistogram instanceCreation = new LatencyHistogram();
+    // histograms of operations (operation-name -> histogram)
+    private final ConcurrentMap<String, LatencyHistogram> operations = new ConcurrentHashMap<>();
+    // failed calls counters (exception class -> counter)
+    private final ConcurrentMap<Class<?>, LongAdder> errors = new ConcurrentHashMap<>();
+
+    PoolMetrics(String serviceId, IntSupplier available, IntSupplier inUse, IntSupplier waiting, Supplier<CacheSnapshot> resultCache) {
+        this.serviceId = serviceId;
+        this.available = available;
+        this.inUse = inUse;
+        this.waiting = waiting;
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * To get histogram of operation to record durations of its calls
+     *
+     * @param operationName the name of operation
+     * @return histogram
+     */
+    LatencyHistogram operation(String operationName) {
+        return operations.computeIfAbsent(operationName, name -> new LatencyHistogram());
+    }
+
+    void checkedOut(long nanos) {
+        checkoutWait.record(nanos);
+    }
+
+    void executed(long nanos) {
+        busy.add(nanos);
+    }
+
+    long busyNanos() {
+        return busy.sum();
+    }
+
+    void instanceCreated(long nanos) {
+        instanceCreation.record(nanos);
+    }
+
+    void exhausted() {
+        exhausted.increment();
+    }
+
+    void discarded() {
+        discarded.increment();
+    }
+
+    void coalesced() {
+        coalesced.increment();
+    }
+
+    void failed(Throwable error) {
+        final Class<?> type = error.getClass();
+        LongAdder counter = errors.get(type);
+        if (counter == null) {
+            counter = errors.computeIfAbsent(type, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Override
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    @Override
+    public int getAvailableInstances() {
+        return available.getAsInt();
+    }
+
+    @Override
+    public int getInUseInstances() {
+        return inUse.getAsInt();
+    }
+
+    @Override
+    public int getWaitingCalls() {
+        return waiting.getAsInt();
+    }
+
+    @Override
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    @Override
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public CacheSnapshot getResultCache() {
+        return resultCache.get();
+    }
+
+    @Override
+    public LatencySnapshot getCheckoutWait() {
+        return checkoutWait.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getInstanceCreation() {
+        return instanceCreation.snapshot();
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getOperationLatency() {
+        final Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+        operations.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+        return snapshots;
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        final Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((type, counter) -> counts.put(type.getName(), counter.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,46 @@
+package oleg.sopilnyak.repository.impl;
+
+/**
+ * Controller of pool size, it estimates the quantity of instances which pool needs<BR/>
+ * Demand is the biggest of average concurrency (busy time of instances per time),
+ * instances in use with waiting callers at the moment and decayed previous demand<BR/>
+ * Target size has headroom over the demand, so pool grows before it's exhausted
+ */
+class PoolSizer {
+    // part of target size over demand
+    static final double HEADROOM = 0.25;
+    // how fast old demand is forgotten on every adjustment
+    static final double DECAY = 0.8;
+
+    private final int minimum;
+    private final int maximum;
+    private double demand;
+    private long lastBusyNanos;
+    private long lastNanos;
+
+    PoolSizer(int minimum, int maximum, long busyNanos, long nowNanos) {
+        this.minimum = Math.min(minimum, maximum);
+        this.maximum = maximum;
+        this.lastBusyNanos = busyNanos;
+        this.lastNanos = nowNanos;
+    }
+
+    /**
+     * To estimate size of pool
+     *
+     * @param inUse     quantity of instances in use at the moment
+     * @param waiting   quantity of callers waiting for instance at the moment
+     * @param busyNanos total time of instances usage since pool start
+     * @param nowNanos  current time (System.nanoTime())
+     * @return target size of pool
+     */
+    int target(int inUse, int waiting, long busyNanos, long nowNanos) {
+        final long elapsed = nowNanos - lastNanos;
+        final double concurrency = elapsed > 0 ? (double) (busyNanos - lastBusyNanos) / elapsed : 0.0;
+        lastBusyNanos = busyNanos;
+        lastNanos = nowNanos;
+        demand = Math.max(Math.max(concurrency, inUse + waiting), demand * DECAY);
+        final int target = (int) Math.ceil(demand * (1.0 + HEADROOM)) + (waiting > 0 ? 1 : 0);
+        return Math.max(minimum, Math.min(maximum, target));
+    }
+}
@@ -13,7 +13,10 @@ import org.springframework.beans.factory.annotation.Value;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
@@ -27,15 +30,31 @@ public class RepositoryImpl implements Repository{
     private final Map<String, ServiceImpl> pools = new ConcurrentHashMap<>();
 
     @Value("${service.pool.start.instances:2}")
-    private int minimumActiveInstances;
+    private int minimumActiveInstances = 2;
     @Value("${service.pool.maximum.instances:10}")
     private int maximumActiveInstances = 10;
+    @Value("${service.pool.startup.parallelism:4}")
+    private int startupParallelism = 4;
+    // executor of service instances making at pools start
+    private volatile ExecutorService startupExecutor;
 
     /**
      * Shutdown all service pools
      */
     public void shutdown(){
         pools.values().forEach(ServiceImpl::shutdown);
+        final ExecutorService executor;
+        writePoolLock.lock();
+        try {
+            // next asynchronous registration makes new executor
+            executor = startupExecutor;
+            startupExecutor = null;
+        } finally {
+            writePoolLock.unlock();
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
     }
     /**
      * Get implementation of service to invoke operations
@@ -95,6 +114,40 @@ public class RepositoryImpl implements Repository{
      */
     @Override
     public void register(ServiceMeta metaInfo, Function builder) throws ServiceAlreadyRegisteredException, ServiceCallException {
+        final ServiceInstancesPool pool = registerPool(metaInfo, builder);
+        log.debug("Try to start instances pool for {}", metaInfo.getId());
+        pool.start();
+    }
+
+    /**
+     * Register service in services registry and start it without waiting for instances<BR/>
+     * Instances of services are made in parallel (service.pool.startup.parallelism threads for all services)
+     *
+     * @param metaInfo service meta information
+     * @param builder  builder of service instance
+     * @return future which is completed when service has minimum instances
+     * @throws ServiceAlreadyRegisteredException when service already registered
+     */
+    @Override
+    public CompletableFuture<ServiceImpl> registerAsync(ServiceMeta metaInfo, Function<?, ?> builder) throws ServiceAlreadyRegisteredException {
+        final ServiceInstancesPool pool = registerPool(metaInfo, builder);
+        log.debug("Try to start asynchronously instances pool for {}", metaInfo.getId());
+        return pool.startAsync(startupExecutor());
+    }
+
+    /**
+     * To get service builder for registration
+     *
+     * @return service meta-information builder
+     */
+    @Override
+    public ServiceBuilder serviceBuilder() {
+        return new ServiceBuilderImpl();
+    }
+
+    // private methods
+    private ServiceInstancesPool registerPool(ServiceMeta metaInfo, Function<?, ?> builder) throws ServiceAlreadyRegisteredException {
+        // pool is started out of lock, so registration of other services does not wait for it
         writePoolLock.lock();
         try{
             final String serviceId = metaInfo.getId();
@@ -111,29 +164,29 @@ public class RepositoryImpl implements Repository{
             // put pool with class-name as id
             final String interfaceId = metaInfo.getInterfaceClass().getName();
             pools.putIfAbsent(interfaceId, pool);
-
-            log.debug("Try to start instances pool for {}", serviceId);
-            pool.start();
+            return pool;
         }finally {
             writePoolLock.unlock();
         }
     }
-
-    /**
-     * To get service builder for registration
-     *
-     * @return service meta-information builder
-     */
-    @Override
-    public ServiceBuilder serviceBuilder() {
-        return new ServiceBuilderImpl();
+    private ExecutorService startupExecutor() {
+        if (startupExecutor == null) {
+            writePoolLock.lock();
+            try {
+                if (startupExecutor == null) {
+                    startupExecutor = Executors.newFixedThreadPool(Math.max(1, startupParallelism), CallExecutors.daemonThreads("pools-start-"));
+                }
+            } finally {
+                writePoolLock.unlock();
+            }
+        }
+        return startupExecutor;
     }
-
-    // private methods
     private ServiceInstancesPool makePool(ServiceMeta service, Function builder){
         final ServiceInstancesPool pool = new ServiceInstancesPool(service, builder);
         pool.setMinimumInstances(minimumActiveInstances);
         pool.setMaximumInstances(maximumActiveInstances);
+        pool.setStartupParallelism(startupParallelism);
         return pool;
     }
     private ServiceImpl getOptionalPool(String serviceID) throws NoRegisteredServiceException {
@@ -0,0 +1,265 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.metrics.CacheSnapshot;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache of operations results with time to live, bounded by quantity of entries and by estimated bytes<BR/>
+ * Eviction is segmented LRU: new result comes to probation segment, result which is hit there moves to protected segment,
+ * so results which are used once cannot wash out frequently used ones<BR/>
+ * Lookup is lock-free, reordering after hit is skipped if the lock is busy
+ */
+final class ResultCache {
+    // result of lookup when there is no actual result in cache
+    static final Object MISS = new Object();
+    // estimated bytes of cache entry without key and result
+    private static final long ENTRY_BYTES = 96;
+    // depth of nested collections which is estimated
+    private static final int ESTIMATE_DEPTH = 4;
+    // segments of entries
+    private static final int NONE = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final int maximumEntries;
+    private final long maximumBytes;
+    private final int maximumProtected;
+    private final ConcurrentMap<CallKey, Node> entries = new ConcurrentHashMap<>();
+    // guards segments lists and counters
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Node probation = new Node(null, null, 0L, 0L);
+    private final Node protectedSegment = new Node(null, null, 0L, 0L);
+    private int count;
+    private int protectedCount;
+    private volatile long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    ResultCache(int maximumEntries, long maximumBytes) {
+        if (maximumEntries < 1 || maximumBytes < 1) {
+            throw new IllegalArgumentException("Wrong maximum entries " + maximumEntries + " or bytes " + maximumBytes);
+        }
+        this.maximumEntries = maximumEntries;
+        this.maximumBytes = maximumBytes;
+        this.maximumProtected = Math.max(1, maximumEntries * 4 / 5);
+        probation.prev = probation.next = probation;
+        protectedSegment.prev = protectedSegment.next = protectedSegment;
+    }
+
+    /**
+     * To get cached result of call
+     *
+     * @param key the call
+     * @return result or MISS if there is no actual result
+     */
+    Object get(CallKey key) {
+        final Node node = entries.get(key);
+        if (node == null) {
+            misses.increment();
+            return MISS;
+        }
+        if (node.expiresAt - System.nanoTime() <= 0L) {
+            expire(node);
+            misses.increment();
+            return MISS;
+        }
+        hits.increment();
+        if (lock.tryLock()) {
+            try {
+                touch(node);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    /**
+     * To put result of call to cache
+     *
+     * @param key      the call
+     * @param value    result of call
+     * @param ttlNanos time to live of result
+     */
+    void put(CallKey key, Object value, long ttlNanos) {
+        final long weight = ENTRY_BYTES + estimate(key.getArguments(), 0) + estimate(value, 0);
+        if (weight > maximumBytes) {
+            return;
+        }
+        final Node node = new Node(key, value, weight, System.nanoTime() + ttlNanos);
+        lock.lock();
+        try {
+            final Node previous = entries.put(key, node);
+            if (previous != null) {
+                unlink(previous);
+            }
+            link(node, probation, PROBATION);
+            while (count > maximumEntries || bytes > maximumBytes) {
+                final Node victim = probation.prev != probation ? probation.prev : protectedSegment.prev;
+                if (victim == protectedSegment) {
+                    break;
+                }
+                entries.remove(victim.key, victim);
+                unlink(victim);
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * To throw away all results
+     */
+    void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            probation.prev = probation.next = probation;
+            protectedSegment.prev = protectedSegment.next = protectedSegment;
+            count = protectedCount = 0;
+            bytes = 0L;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * To get statistics of cache
+     *
+     * @return snapshot
+     */
+    CacheSnapshot snapshot() {
+        return new CacheSnapshot(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), entries.size(), bytes);
+    }
+
+    // private methods
+    private void expire(Node node) {
+        lock.lock();
+        try {
+            if (entries.remove(node.key, node)) {
+                unlink(node);
+                expirations.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // result which is hit moves to the head of protected segment, the tail of protected segment goes back to probation
+    private void touch(Node node) {
+        if (node.segment == NONE) {
+            return;
+        }
+        unlink(node);
+        link(node, protectedSegment, PROTECTED);
+        if (protectedCount > maximumProtected) {
+            final Node demoted = protectedSegment.prev;
+            unlink(demoted);
+            link(demoted, probation, PROBATION);
+        }
+    }
+
+    private void link(Node node, Node head, int segment) {
+        node.prev = head;
+        node.next = head.next;
+        head.next.prev = node;
+        head.next = node;
+        node.segment = segment;
+        count++;
+        if (segment == PROTECTED) {
+            protectedCount++;
+        }
+        bytes += node.weight;
+    }
+
+    private void unlink(Node node) {
+        if (node.segment == NONE) {
+            return;
+        }
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = node.next = null;
+        count--;
+        if (node.segment == PROTECTED) {
+            protectedCount--;
+        }
+        bytes -= node.weight;
+        node.segment = NONE;
+    }
+
+    // rough estimation of object size in bytes
+    private static long estimate(Object value, int depth) {
+        if (value == null) {
+            return 0L;
+        }
+        if (value instanceof CharSequence) {
+            return 40L + 2L * ((CharSequence) value).length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum) {
+            return 16L;
+        }
+        if (depth >= ESTIMATE_DEPTH) {
+            return 64L;
+        }
+        if (value instanceof Object[]) {
+            long size = 16L;
+            for (final Object element : (Object[]) value) {
+                size += 8L + estimate(element, depth + 1);
+            }
+            return size;
+        }
+        if (value.getClass().isArray()) {
+            final Class<?> type = value.getClass().getComponentType();
+            final long element = type == byte.class || type == boolean.class ? 1L
+                    : type == char.class || type == short.class ? 2L
+                    : type == int.class || type == float.class ? 4L : 8L;
+            return 16L + element * Array.getLength(value);
+        }
+        if (value instanceof Collection) {
+            long size = 48L;
+            for (final Object element : (Collection<?>) value) {
+                size += 32L + estimate(element, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            long size = 48L;
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += 48L + estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+            }
+            return size;
+        }
+        return 64L;
+    }
+
+    // inner classes
+    private static final class Node {
+        private final CallKey key;
+        private final Object value;
+        private final long weight;
+        // the moment (System.nanoTime()) when result is out of date
+        private final long expiresAt;
+        // segment and links are guarded by lock
+        private int segment = NONE;
+        private Node prev;
+        private Node next;
+
+        private Node(CallKey key, Object value, long weight, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -3,25 +3,39 @@ package oleg.sopilnyak.repository.impl;
 import oleg.sopilnyak.builder.impl.OperationBuilderImpl;
 import oleg.sopilnyak.builder.impl.ServiceBuilderImpl;
 import oleg.sopilnyak.call.Call;
+import oleg.sopilnyak.call.CallListener;
+import oleg.sopilnyak.circuit.CircuitBreaker;
 import oleg.sopilnyak.exception.*;
+import oleg.sopilnyak.metrics.CacheSnapshot;
+import oleg.sopilnyak.metrics.LatencyHistogram;
+import oleg.sopilnyak.metrics.ServiceMetrics;
+import oleg.sopilnyak.pacing.LeakyBucketPacer;
+import oleg.sopilnyak.pacing.Pacer;
+import oleg.sopilnyak.pacing.TokenBucketPacer;
 import oleg.sopilnyak.repository.ServiceImpl;
 import oleg.sopilnyak.repository.ServiceMeta;
+import oleg.sopilnyak.util.Failures;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.ObjectUtils;
-import org.springframework.util.StringUtils;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static java.util.Arrays.asList;
-
 /**
  * Service service-instances pool
  */
@@ -33,29 +47,105 @@ public class ServiceInstancesPool implements ServiceMeta, ServiceImpl {
     private Class<?> interfaceClass;
     // map of allowed service operations
     private Map<String, Set<ServiceMeta.Operation>> operations = new HashMap<>();
+    // invokers of operations methods, bound at import
+    private final Map<ServiceMeta.Operation, OperationInvoker> invokers = new HashMap<>();
+    // shared calls of operations, created at import (operation-name -> call)
+    private Map<String, Call> calls = Collections.emptyMap();
+    // immutable view of calls of operations
+    private List<Call> callsView = Collections.emptyList();
 
-    private final Semaphore serviceBuilderSemaphore = new Semaphore(1);
     // minimum pre-run instances of service
     private int minimumInstances = 2;
     // maximum instances to execute
     private int maximumInstances = 10;
     // duration between remote calls
     private long exclusiveDelayValue = 300;
+    // rate limiter of remote calls
+    private final CallRateLimiter rateLimiter;
+    // circuit breakers of operations calls
+    private final CallCircuitBreakers circuitBreakers;
+    // pacing of service instances creation
+    private volatile Pacer creationPacer = LeakyBucketPacer.of(exclusiveDelayValue, TimeUnit.MILLISECONDS);
+    // maximum time in milliseconds to wait for free instance (0 - wait forever)
+    private long acquireTimeoutValue = 0;
+    // flag of first-come-first-served order of waiting for free instance
+    private boolean fairCheckout = false;
+    // maximum duration in milliseconds of asynchronous call (0 - unlimited)
+    private long asyncCallTimeoutValue = 0;
+    // maximum quantity of running and pending asynchronous calls
+    private int maximumAsyncCalls = Integer.MAX_VALUE;
+    // type of threads to execute asynchronous calls
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM_THREADS;
+    // flag of adjusting pool size to demand between minimumInstances and maximumInstances
+    private boolean adaptiveSizing = false;
+    // period in milliseconds of pool size adjustment
+    private long sizingIntervalValue = 1000;
+    // duration in milliseconds of instance idleness after which it may be thrown away (0 - never)
+    private long idleTimeoutValue = 60_000;
+    // maximum quantity of instances which are made in parallel at start
+    private int startupParallelism = 4;
+    // future of pool readiness (minimum instances are made)
+    private volatile CompletableFuture<ServiceImpl> readiness;
+    // quantity of idle instances which background builder keeps ready (0 - callers build instances themselves)
+    private int spareInstances = 0;
+    // listener of operations calls events
+    private volatile CallListener callListener = CallListener.NONE;
+    // maximum quantity of cached results of operations
+    private int resultCacheMaximumEntries = 10_000;
+    // maximum estimated size in bytes of cached results of operations
+    private long resultCacheMaximumBytes = 16L * 1024 * 1024;
+    // cache of results of idempotent operations (null - there are no such operations)
+    private volatile ResultCache resultCache;
+    // check of service instance health (null - instances are not checked)
+    private volatile Predicate<Object> instanceValidator;
+    // flag of instance check before it's given to caller
+    private boolean validateOnBorrow = false;
+    // flag of instance check when caller returns it
+    private boolean validateOnReturn = false;
+    // period in milliseconds of idle instances check (0 - idle instances are not checked)
+    private long validationIntervalValue = 0;
+    // classifier of call failures after which instance is thrown away and replaced
+    private volatile Predicate<Throwable> brokenInstanceFailure = ServiceInstancesPool::isTransportFailure;
+
+    // lock-free slots of service instances
+    private volatile InstanceSlots slots = new InstanceSlots(maximumInstances);
 
-    // set of available instances of service instances
-    private Stack available = new Stack();
-    // set of busy instances of service realization
-    private Set inAction = new LinkedHashSet();
+    // Lock for waiting of free instance
+    private ReentrantLock instancesLock = new ReentrantLock();
+    // queue of callers are waiting for free instance
+    private final Deque<InstanceWaiter> waiters = new ArrayDeque<>();
+    // quantity of waiting callers to check without lock
+    private final AtomicInteger waiting = new AtomicInteger();
 
-    // Look for instances containers
-    private final Lock instancesLock = new ReentrantLock();
+    // executor of asynchronous calls
+    private volatile ExecutorService callExecutor;
+    // permits of asynchronous calls
+    private volatile Semaphore asyncCallsPermits;
+    // scheduler of asynchronous calls timeouts
+    private volatile ScheduledExecutorService timeoutScheduler;
+    // background builder of spare and replacing instances
+    private volatile ExecutorService backgroundBuilder;
+    // flag of running background building
+    private final AtomicBoolean building = new AtomicBoolean();
+    // flag of failed background building (callers build instances themselves until builder succeeds)
+    private volatile boolean backgroundBuildFailed;
+    // quantity of thrown away instances which are waiting for replacement
+    private final AtomicInteger replacements = new AtomicInteger();
+    // scheduler of pool size adjustment and idle instances check
+    private volatile ScheduledExecutorService maintenanceScheduler;
     // builder of service instance
     private Function instanceBuilder;
+    // metrics of pool and calls
+    private final PoolMetrics metrics;
 
     public ServiceInstancesPool(ServiceMeta service, Function builder) {
         serviceId = service.getId();
         interfaceClass = service.getInterfaceClass();
         instanceBuilder = builder;
+        metrics = new PoolMetrics(serviceId, () -> slots.available(), () -> slots.inUse(), waiting::get, this::resultCacheSnapshot);
+        rateLimiter = new CallRateLimiter(serviceId);
+        rateLimiter.setServicePacer(LeakyBucketPacer.of(exclusiveDelayValue, TimeUnit.MILLISECONDS));
+        circuitBreakers = new CallCircuitBreakers(serviceId);
         importOperations(service.getOperations());
     }
 
@@ -65,26 +155,125 @@ public class ServiceInstancesPool implements ServiceMeta, ServiceImpl {
      * @throws ServiceExecutionException if cannot make appropriate instances
      */
     public void start() throws ServiceExecutionException {
-        if (!active) {
-            log.info("Starting pool for service-id: {} min: {} max: {}", serviceId, minimumInstances, maximumInstances);
-            active = true;
-            available.clear();
-            inAction.clear();
-            try {
-                for (int i = 0; i < minimumInstances; i++) {
-                    registerServiceInstance();
-                }
-            } catch (Throwable t) {
-                throw new ServiceExecutionException("Cannot start " + serviceId, t);
+        try {
+            startAsync().join();
+        } catch (CompletionException e) {
+            throw new ServiceExecutionException("Cannot start " + serviceId, e.getCause());
+        }
+    }
+
+    /**
+     * To start working service instances pool without waiting for minimum instances<BR/>
+     * Pool accepts calls at once, minimum instances are made in parallel by own threads
+     *
+     * @return future which is completed when minimum instances are made
+     */
+    public CompletableFuture<ServiceImpl> startAsync() {
+        final ExecutorService warmUp = Executors.newFixedThreadPool(warmUpParallelism(), CallExecutors.daemonThreads(serviceId + "-start-"));
+        try {
+            return startAsync(warmUp);
+        } finally {
+            // threads are finished after the warm-up
+            warmUp.shutdown();
+        }
+    }
+
+    /**
+     * To start working service instances pool without waiting for minimum instances<BR/>
+     * Pool accepts calls at once, minimum instances are made in parallel (up to startupParallelism) by executor
+     *
+     * @param executor executor of instances making
+     * @return future which is completed when minimum instances are made
+     */
+    public synchronized CompletableFuture<ServiceImpl> startAsync(Executor executor) {
+        if (active) {
+            return readiness;
+        }
+        log.info("Starting pool for service-id: {} min: {} max: {}", serviceId, minimumInstances, maximumInstances);
+        slots = new InstanceSlots(maximumInstances);
+        callExecutor = CallExecutors.executor(executionMode, serviceId + "-call-", maximumInstances);
+        asyncCallsPermits = new Semaphore(maximumAsyncCalls);
+        timeoutScheduler = Executors.newSingleThreadScheduledExecutor(CallExecutors.daemonThreads(serviceId + "-timeout-"));
+        resultCache = calls.values().stream().anyMatch(call -> ((OperationCall) call).cacheTtlNanos > 0L)
+                ? new ResultCache(resultCacheMaximumEntries, resultCacheMaximumBytes) : null;
+        materializedCalls().forEach(call -> call.materialized.clear());
+        active = true;
+        exportMetrics();
+        // making minimum instances in parallel
+        final AtomicInteger remaining = new AtomicInteger(minimumInstances);
+        final CompletableFuture<?>[] workers = new CompletableFuture<?>[warmUpParallelism()];
+        try {
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = CompletableFuture.runAsync(() -> warmUp(remaining), executor);
             }
+        } catch (RejectedExecutionException e) {
+            log.error("Cannot start pool for service-id: {}", serviceId, e);
+            // rolling back, so next start begins from scratch (already submitted workers stop as pool isn't active)
+            shutdown();
+            readiness = null;
+            final CompletableFuture<ServiceImpl> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new ServiceExecutionException("Cannot start " + serviceId, e));
+            return failed;
         }
+        readiness = CompletableFuture.allOf(workers).thenApply(done -> {
+            startMaintenance();
+            return this;
+        });
+        return readiness;
     }
 
     /**
      * To stop working with service instances
      */
-    public void shutdown() {
-        active = false;
+    public synchronized void shutdown() {
+        instancesLock.lock();
+        try {
+            active = false;
+            // wake up all waiting callers
+            waiters.forEach(waiter -> waiter.released.signal());
+        } finally {
+            instancesLock.unlock();
+        }
+        if (callExecutor != null) {
+            // fail pending asynchronous calls
+            for (final Runnable pending : callExecutor.shutdownNow()) {
+                if (pending instanceof AsyncCall) {
+                    final AsyncCall<?> task = (AsyncCall<?>) pending;
+                    task.future.completeExceptionally(new ServiceCallException("Pool for " + serviceId + " is stopped."));
+                    task.release();
+                }
+            }
+            timeoutScheduler.shutdownNow();
+        }
+        if (backgroundBuilder != null) {
+            backgroundBuilder.shutdownNow();
+            backgroundBuilder = null;
+        }
+        if (maintenanceScheduler != null) {
+            maintenanceScheduler.shutdownNow();
+            maintenanceScheduler = null;
+        }
+        replacements.set(0);
+        final ResultCache cache = resultCache;
+        if (cache != null) {
+            // cached results aren't kept by stopped pool
+            cache.clear();
+        }
+        if (instanceBuilder instanceof AutoCloseable) {
+            // resources of builder (e.g. parsed WSDL of JaxWsInstanceBuilder) aren't kept by stopped pool
+            closeInstanceBuilder((AutoCloseable) instanceBuilder);
+        }
+        unexportMetrics();
+    }
+
+    /**
+     * To get metrics of pool and operations calls
+     *
+     * @return metrics of service
+     */
+    @Override
+    public ServiceMetrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -104,8 +293,204 @@ public class ServiceInstancesPool implements ServiceMeta, ServiceImpl {
         this.maximumInstances = maximumInstances;
     }
 
+    /**
+     * To setup duration between remote calls and between service instances creation
+     *
+     * @param exclusiveDelayValue duration in milliseconds
+     */
     public void setExclusiveDelayValue(long exclusiveDelayValue) {
         this.exclusiveDelayValue = exclusiveDelayValue;
+        this.rateLimiter.setServicePacer(LeakyBucketPacer.of(exclusiveDelayValue, TimeUnit.MILLISECONDS));
+        this.creationPacer = LeakyBucketPacer.of(exclusiveDelayValue, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * To setup rate limit of remote calls for all operations of service (instead of exclusive delay)
+     *
+     * @param permitsPerSecond average quantity of calls per second
+     * @param burst            quantity of calls permitted at once after idle time
+     */
+    public void setRateLimit(double permitsPerSecond, int burst) {
+        rateLimiter.setServicePacer(new TokenBucketPacer(permitsPerSecond, burst));
+    }
+
+    /**
+     * To setup rate limit of remote calls for particular operation (overrides limit of service)
+     *
+     * @param operationName    the name of operation
+     * @param permitsPerSecond average quantity of calls per second
+     * @param burst            quantity of calls permitted at once after idle time
+     */
+    public void setOperationRateLimit(String operationName, double permitsPerSecond, int burst) {
+        rateLimiter.setOperationPacer(operationName, new TokenBucketPacer(permitsPerSecond, burst));
+    }
+
+    /**
+     * To setup reaction to exceeded rate limit
+     *
+     * @param rateLimitBlocking if true call waits for permit, otherwise RateLimitExceededException is thrown
+     */
+    public void setRateLimitBlocking(boolean rateLimitBlocking) {
+        rateLimiter.setBlocking(rateLimitBlocking);
+    }
+
+    /**
+     * To setup circuit breakers of calls, every operation of service gets own breaker with these settings
+     *
+     * @param settings settings of breakers (null - calls are not guarded)
+     */
+    public void setCircuitBreaker(CircuitBreaker.Settings settings) {
+        circuitBreakers.setServiceSettings(settings);
+    }
+
+    /**
+     * To setup circuit breaker of particular operation (overrides settings of service)
+     *
+     * @param operationName the name of operation
+     * @param settings      settings of breaker (null - settings of service are used)
+     */
+    public void setOperationCircuitBreaker(String operationName, CircuitBreaker.Settings settings) {
+        circuitBreakers.setOperationSettings(operationName, settings);
+    }
+
+    /**
+     * To get state of circuit breaker of operation
+     *
+     * @param operationName the name of operation
+     * @return state of breaker or null if calls of operation are not guarded
+     */
+    public CircuitBreaker.State getCircuitState(String operationName) {
+        final CircuitBreaker breaker = circuitBreakers.breaker(operationName);
+        return breaker == null ? null : breaker.getState();
+    }
+
+    /**
+     * To setup bounds of cache of idempotent operations results
+     *
+     * @param maximumEntries maximum quantity of cached results
+     * @param maximumBytes   maximum estimated size of cached results in bytes
+     * @throws IllegalStateException if pool is active
+     */
+    public void setResultCacheLimits(int maximumEntries, long maximumBytes) {
+        if (active) throw new IllegalStateException("Pool should be inactive.");
+        this.resultCacheMaximumEntries = maximumEntries;
+        this.resultCacheMaximumBytes = maximumBytes;
+    }
+
+    /**
+     * To setup adjustment of pool size to demand (instances are made in advance and idle ones are thrown away)
+     *
+     * @param adaptiveSizing if true, pool size is adjusted between minimumInstances and maximumInstances
+     * @throws IllegalStateException if pool is active
+     */
+    public void setAdaptiveSizing(boolean adaptiveSizing) {
+        if (active) throw new IllegalStateException("Pool should be inactive.");
+        this.adaptiveSizing = adaptiveSizing;
+    }
+
+    /**
+     * To setup quantity of idle instances which are made in advance by background builder
+     *
+     * @param spareInstances quantity of spare instances (0 - instances are made by callers)
+     * @throws IllegalStateException if pool is active
+     */
+    public void setSpareInstances(int spareInstances) {
+        if (active) throw new IllegalStateException("Pool should be inactive.");
+        this.spareInstances = spareInstances;
+    }
+
+    public void setStartupParallelism(int startupParallelism) {
+        this.startupParallelism = startupParallelism;
+    }
+
+    public void setSizingIntervalValue(long sizingIntervalValue) {
+        this.sizingIntervalValue = sizingIntervalValue;
+    }
+
+    public void setIdleTimeoutValue(long idleTimeoutValue) {
+        this.idleTimeoutValue = idleTimeoutValue;
+    }
+
+    /**
+     * To setup listener of operations calls events
+     *
+     * @param callListener the listener (CallListener.NONE - no events)
+     */
+    public void setCallListener(CallListener callListener) {
+        this.callListener = callListener == null ? CallListener.NONE : callListener;
+    }
+
+    /**
+     * To setup check of service instance health
+     *
+     * @param instanceValidator the check, returns false for broken instance (null - instances are not checked)
+     */
+    public void setInstanceValidator(Predicate<Object> instanceValidator) {
+        this.instanceValidator = instanceValidator;
+    }
+
+    public void setValidateOnBorrow(boolean validateOnBorrow) {
+        this.validateOnBorrow = validateOnBorrow;
+    }
+
+    public void setValidateOnReturn(boolean validateOnReturn) {
+        this.validateOnReturn = validateOnReturn;
+    }
+
+    /**
+     * To setup period of background check of idle instances
+     *
+     * @param validationIntervalValue period in milliseconds (0 - idle instances are not checked)
+     * @throws IllegalStateException if pool is active
+     */
+    public void setValidationIntervalValue(long validationIntervalValue) {
+        if (active) throw new IllegalStateException("Pool should be inactive.");
+        this.validationIntervalValue = validationIntervalValue;
+    }
+
+    /**
+     * To setup classifier of call failures which mean that service instance is broken<BR/>
+     * By default instance is broken after transport failures (I/O errors and JAX-WS errors except SOAP faults)
+     *
+     * @param brokenInstanceFailure the classifier, returns true if instance should be thrown away and replaced
+     */
+    public void setBrokenInstanceFailure(Predicate<Throwable> brokenInstanceFailure) {
+        this.brokenInstanceFailure = brokenInstanceFailure == null ? failure -> false : brokenInstanceFailure;
+    }
+
+    public void setAcquireTimeoutValue(long acquireTimeoutValue) {
+        this.acquireTimeoutValue = acquireTimeoutValue;
+    }
+
+    public void setAsyncCallTimeoutValue(long asyncCallTimeoutValue) {
+        this.asyncCallTimeoutValue = asyncCallTimeoutValue;
+    }
+
+    public void setMaximumAsyncCalls(int maximumAsyncCalls) {
+        this.maximumAsyncCalls = maximumAsyncCalls;
+    }
+
+    /**
+     * To setup type of threads which execute asynchronous calls
+     *
+     * @param executionMode the mode
+     * @throws IllegalStateException if pool is active
+     */
+    public void setExecutionMode(ExecutionMode executionMode) {
+        if (active) throw new IllegalStateException("Pool should be inactive.");
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * To setup order of serving callers waiting for free instance
+     *
+     * @param fairCheckout if true, released instance is given to the longest waiting caller
+     * @throws IllegalStateException if pool is active
+     */
+    public void setFairCheckout(boolean fairCheckout) {
+        if (active) throw new IllegalStateException("Pool should be inactive.");
+        this.fairCheckout = fairCheckout;
+        this.instancesLock = new ReentrantLock(fairCheckout);
     }
 
     /**
@@ -147,19 +532,30 @@ public class ServiceInstancesPool implements ServiceMeta, ServiceImpl {
      */
     @Override
     public Call getOperationCall(String name) throws OperationNotFoundException {
-        if (operations.get(name) != null) {
-            return new OperationCall(name);
+        final Call call = calls.get(name);
+        if (call != null) {
+            return call;
         } else throw new OperationNotFoundException("Not registered", name);
     }
 
     /**
-     * To get array of operations execute enititie
+     * To get array of operations execute enitities
      *
-     * @return array of calls
+     * @return array of calls (the calls are shared, the array is not)
      */
     @Override
     public Call[] getCallOperations() {
-        return operations.keySet().stream().map(OperationCall::new).toArray(Call[]::new);
+        return callsView.toArray(new Call[0]);
+    }
+
+    /**
+     * To get operations execute entities without copying
+     *
+     * @return immutable list of calls
+     */
+    @Override
+    public List<Call> getCallOperationList() {
+        return callsView;
     }
 
     /**
@@ -181,12 +577,79 @@ public class ServiceInstancesPool implements ServiceMeta, ServiceImpl {
         if (!active) throw new IllegalStateException("Pool should be active.");
     }
 
+    private CacheSnapshot resultCacheSnapshot() {
+        final ResultCache cache = resultCache;
+        return cache == null ? new CacheSnapshot(0L, 0L, 0L, 0L, 0, 0L) : cache.snapshot();
+    }
+
+    // to register metrics MXBean (latest started pool of service wins)
+    private void exportMetrics() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = metricsName();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(metrics, name);
+        } catch (JMException e) {
+            log.warn("Cannot export metrics of service " + serviceId, e);
+        }
+    }
+
+    private void unexportMetrics() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = metricsName();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            log.warn("Cannot remove metrics of service " + serviceId, e);
+        }
+    }
+
+    private ObjectName metricsName() throws MalformedObjectNameException {
+        return new ObjectName("oleg.sopilnyak:type=ServiceInstancesPool,name=" + ObjectName.quote(serviceId));
+    }
+
     private void importOperations(Operation[] importOperations) {// TODO realize it at all
         log.debug("Importing {} operations", importOperations.length);
         final Method[] methods = interfaceClass.getDeclaredMethods();
         this.operations.clear();
+        this.invokers.clear();
         Stream.of(importOperations).map(operation -> accept(operation, methods))
-                .forEachOrdered(imported -> operations.computeIfAbsent(imported.getName(), (k) -> new LinkedHashSet<>()).add(imported));
+                .forEachOrdered(imported -> {
+                    operations.computeIfAbsent(imported.getName(), (k) -> new LinkedHashSet<>()).add(imported);
+                    bindInvoker(imported);
+                });
+        final Map<String, Call> imported = new LinkedHashMap<>();
+        operations.keySet().forEach(name -> imported.put(name, new OperationCall<>(name)));
+        this.calls = Collections.unmodifiableMap(imported);
+        this.callsView = Collections.unmodifiableList(new ArrayList<>(imported.values()));
+    }
+
+    // limits of overloads of operation are shared by all of them
+    private OperationBulkhead makeBulkhead(String name, Collection<Operation> overloads) {
+        final int maxConcurrentCalls = overloads.stream().mapToInt(Operation::getMaxConcurrentCalls).max().orElse(0);
+        if (maxConcurrentCalls <= 0) {
+            return null;
+        }
+        final int maxWaitingCalls = overloads.stream().mapToInt(Operation::getMaxWaitingCalls).max().orElse(0);
+        log.debug("Operation {} of {} is limited by {} concurrent calls", name, serviceId, maxConcurrentCalls);
+        return new OperationBulkhead(serviceId, name, maxConcurrentCalls, maxWaitingCalls);
+    }
+
+    private void bindInvoker(Operation operation) {
+        final Method method = operation.getOperationMethod();
+        if (method == null) {
+            log.warn("No method of {} for operation {}", interfaceClass, operation);
+            return;
+        }
+        try {
+            invokers.put(operation, OperationInvoker.of(method));
+        } catch (IllegalAccessException e) {
+            log.error("Cannot bind method of operation " + operation, e);
+        }
     }
 
     private Operation accept(Operation operation, Method[] methods) {
@@ -224,129 +687,648 @@ public class ServiceInstancesPool implements ServiceMeta, ServiceImpl {
     }
 
     private Object executeCall(final OperationCall call, Object param, Object... extra) throws ServiceCallException {
+        if (ObjectUtils.isEmpty(param)) {
+            return executeCall(call, 0, null, null, null);
+        }
+        if (ObjectUtils.isEmpty(extra)) {
+            return executeCall(call, 1, param, null, null);
+        }
+        return executeCall(call, extra.length + 1, param, extra[0], extra);
+    }
+
+    // count is quantity of actual parameters, extras are used only if there are more than two parameters
+    private Object executeCall(final OperationCall<?> call, int count, Object param, Object extra, Object[] extras) throws ServiceCallException {
         checkPoolState();
-        log.info("Preparing operation {} for service {}", call.name, serviceId);
-        Object[] parameters = makeInvokeParameters(param, extra);
-        final Method operationMethod = call.getValidOperation(parameters).getOperationMethod();
+        final MaterializedResult materialized = call.materialized;
+        if (materialized != null && count == 0) {
+            return materializedResult(call, materialized);
+        }
+        final ResultCache cache = call.cacheTtlNanos > 0L ? resultCache : null;
+        final CallCoalescer coalescer = call.coalescer;
+        if (cache == null && coalescer == null) {
+            return executeOnInstance(call, count, param, extra, extras);
+        }
+        final Object[] arguments = count == 0 ? new Object[0] : count == 1 ? new Object[]{param}
+                : count == 2 ? new Object[]{param, extra} : makeInvokeParameters(param, extras, count);
+        final CallKey key = new CallKey(call.name, arguments);
+        if (cache != null) {
+            // cached result is returned without instance and pacing
+            final Object cached = cache.get(key);
+            if (cached != ResultCache.MISS) {
+                return cached;
+            }
+        }
+        if (coalescer == null) {
+            return executeAndCache(call, key, cache, count, param, extra, extras);
+        }
+        return coalescer.execute(key, () -> executeAndCache(call, key, cache, count, param, extra, extras));
+    }
+
+    private Object materializedResult(OperationCall<?> call, MaterializedResult materialized) throws ServiceCallException {
+        if (materialized.isReady()) {
+            if (materialized.isStale(System.nanoTime())) {
+                requestRefresh(call);
+            }
+            return materialized.get();
+        }
+        // there is no result yet, concurrent callers make it once
+        return materialized.make(() -> executeOnInstance(call, 0, null, null, null));
+    }
+
+    // refresh takes spare instance, so it's postponed in busy pool until the result is overdue
+    private void requestRefresh(OperationCall<?> call) {
+        final MaterializedResult materialized = call.materialized;
+        final ExecutorService executor = callExecutor;
+        if (!active || executor == null || slots.available() == 0 && !materialized.isOverdue(System.nanoTime())) {
+            return;
+        }
+        if (materialized.startRefresh()) {
+            try {
+                executor.execute(() -> refresh(call));
+            } catch (RejectedExecutionException e) {
+                materialized.refreshFailed();
+            }
+        }
+    }
+
+    private void refresh(OperationCall<?> call) {
+        final MaterializedResult materialized = call.materialized;
+        try {
+            if (materialized.isReady()) {
+                materialized.refreshed(executeOnInstance(call, 0, null, null, null));
+            } else {
+                // callers may wait for the first result, they share it
+                materialized.refreshed(materialized.make(() -> executeOnInstance(call, 0, null, null, null)));
+            }
+        } catch (Throwable t) {
+            materialized.refreshFailed();
+            if (active) {
+                log.warn("Cannot refresh result of " + call.name + " of service " + serviceId, t);
+            }
+        }
+    }
+
+    private Stream<OperationCall<?>> materializedCalls() {
+        return calls.values().stream().<OperationCall<?>>map(call -> (OperationCall<?>) call).filter(call -> call.materialized != null);
+    }
+
+    private Object executeAndCache(OperationCall<?> call, CallKey key, ResultCache cache, int count, Object param, Object extra, Object[] extras) throws ServiceCallException {
+        final Object result = executeOnInstance(call, count, param, extra, extras);
+        if (cache != null) {
+            cache.put(key, result, call.cacheTtlNanos);
+        }
+        return result;
+    }
 
-        final Object serviceInstance = findFreeInstance();
-        log.debug("Found free service instance {}", serviceInstance);
+    private Object executeOnInstance(final OperationCall<?> call, int count, Object param, Object extra, Object[] extras) throws ServiceCallException {
+        final CallListener listener = callListener;
+        final boolean observed = listener != CallListener.NONE;
+        final long started = System.nanoTime();
+        if (observed) {
+            listener.callStarted(serviceId, call.name);
+        }
 
+        final CircuitBreaker breaker = circuitBreakers.breaker(call.name);
+        boolean permitted = false;
+        final OperationBulkhead bulkhead = call.bulkhead;
+        boolean entered = false;
+        final OperationInvoker invoker;
+        final InstanceSlots.Slot slot;
         try {
-            log.debug("Executing operation {} for service {}", call.name, serviceId);
-            final int methodParametersCount = operationMethod.getParameterCount();
-            if (methodParametersCount < parameters.length){
-                log.warn("Reject last {} actual parameters for operation .{}. of service '{}'", parameters.length-methodParametersCount, call.getOperationName(), serviceId);
-                parameters = Arrays.copyOf(parameters, methodParametersCount);
+            invoker = call.dispatcher.resolve(param, extra, Math.min(count, 2)).getInvoker();
+            if (invoker == null) {
+                throw new OperationNotFoundException("Not bound to method", call.name);
+            }
+            // failing fast without pacing and taking the instance
+            if (breaker != null && !(permitted = breaker.tryAcquire())) {
+                throw new CircuitBreakerOpenException("Circuit of " + call.name + " of service " + serviceId + " is open", serviceId, call.name);
+            }
+            // taking place among concurrent calls of operation
+            if (bulkhead != null) {
+                bulkhead.enter(acquireTimeoutValue);
+                entered = true;
+            }
+            // waiting for call's turn before taking the instance
+            rateLimiter.acquire(call.name);
+            final long checkout = System.nanoTime();
+            slot = findFreeInstance();
+            metrics.checkedOut(System.nanoTime() - checkout);
+        } catch (Throwable e) {
+            // permits are given back on any failure (errors of instance making as well)
+            if (permitted) {
+                // the call isn't made
+                breaker.release();
+            }
+            if (entered) {
+                bulkhead.leave();
+            }
+            metrics.failed(e);
+            if (observed) {
+                listener.callFailed(serviceId, call.name, System.nanoTime() - started, 0L, e);
+            }
+            throw e;
+        }
+        final Object serviceInstance = slot.getInstance();
+        final long acquired = System.nanoTime();
+
+        final Object result;
+        Throwable failure = null;
+        try {
+            final int methodParametersCount = invoker.getParameterCount();
+            if (methodParametersCount < count && log.isWarnEnabled()) {
+                log.warn("Reject last {} actual parameters for operation .{}. of service '{}'", count - methodParametersCount, call.getOperationName(), serviceId);
             }
-            exclusiveDelay(exclusiveDelayValue);
             // execute operation method
-            final Object result = operationMethod.invoke(serviceInstance, parameters);
-            // return execution result
-            log.debug("Execution result operation {} for service {} = '{}'", call.name, serviceId, result);
-            return result;
+            switch (count) {
+                case 0:
+                    result = invoker.invoke0(serviceInstance);
+                    break;
+                case 1:
+                    result = invoker.invoke1(serviceInstance, param);
+                    break;
+                case 2:
+                    result = invoker.invoke2(serviceInstance, param, extra);
+                    break;
+                default:
+                    result = invoker.invoke(serviceInstance, makeInvokeParameters(param, extras, methodParametersCount));
+            }
         } catch (Throwable t) {
             // something went wrong
-            final StringBuilder msg = new StringBuilder("Cannot execute operation ")
-                    .append(call.name).append(" of service ").append(serviceId);
-            log.error(msg.toString(), t);
-            throw new ServiceExecutionException(msg.toString(), t);
+            failure = t;
+            final long finished = System.nanoTime();
+            call.latency.record(finished - acquired);
+            metrics.executed(finished - acquired);
+            metrics.failed(t);
+            if (breaker != null) {
+                breaker.onFailure(finished - acquired, t);
+            }
+            if (observed) {
+                listener.callFailed(serviceId, call.name, acquired - started, finished - acquired, t);
+            }
+            throw new ServiceExecutionException("Cannot execute operation " + call.name + " of service " + serviceId, t);
         } finally {
-            log.debug("Return to free service instances {}", serviceInstance);
-            freeServiceInstance(serviceInstance);
+            returnServiceInstance(slot, failure);
+            if (bulkhead != null) {
+                bulkhead.leave();
+            }
+        }
+        final long finished = System.nanoTime();
+        call.latency.record(finished - acquired);
+        metrics.executed(finished - acquired);
+        if (breaker != null) {
+            breaker.onSuccess(finished - acquired);
+        }
+        if (observed) {
+            listener.callFinished(serviceId, call.name, acquired - started, finished - acquired);
         }
+        // return execution result
+        return result;
     }
 
-    private static Object[] makeInvokeParameters(Object param, Object[] extra) {
-        if (ObjectUtils.isEmpty(param)) return new Object[0];
-        final List params = new ArrayList(Collections.singletonList(param));
-        if (!ObjectUtils.isEmpty(extra)) params.addAll(asList(extra));
-        return params.toArray();
+    private <R> CompletableFuture<R> submitCall(final OperationCall<R> call, Object param, Object... extra) {
+        final Semaphore permits = asyncCallsPermits;
+        final AsyncCall<R> task = new AsyncCall<>(call, param, extra, permits);
+        final ExecutorService executor = callExecutor;
+        if (!active || executor == null) {
+            task.future.completeExceptionally(new IllegalStateException("Pool should be active."));
+            return task.future;
+        }
+        // permit is held until the task leaves the executor, timed out call may still block the thread
+        if (!permits.tryAcquire()) {
+            task.future.completeExceptionally(new ServiceCallException("Too many asynchronous calls of " + serviceId));
+            return task.future;
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.release();
+            task.future.completeExceptionally(new ServiceCallException("Call of " + call.name + " is rejected.", e));
+            return task.future;
+        }
+        final long timeout = asyncCallTimeoutValue;
+        if (timeout > 0) {
+            final ScheduledFuture<?> timer = timeoutScheduler.schedule(() -> task.future.completeExceptionally(
+                    new CallTimeoutException("Call of " + call.name + " is timed out", call.name, timeout)
+            ), timeout, TimeUnit.MILLISECONDS);
+            task.future.whenComplete((result, error) -> timer.cancel(false));
+        }
+        task.future.whenComplete((result, error) -> {
+            if (error != null && !task.stop() && executor instanceof ThreadPoolExecutor && ((ThreadPoolExecutor) executor).remove(task)) {
+                // cancelled or timed out call is removed from the queue, it won't run
+                task.release();
+            }
+        });
+        return task.future;
     }
 
-    private Object findFreeInstance() throws ServiceCallException {
-        instancesLock.lock();
+    private static Object[] makeInvokeParameters(Object param, Object[] extra, int methodParametersCount) {
+        final Object[] parameters = new Object[Math.min(extra.length + 1, methodParametersCount)];
+        if (parameters.length > 0) {
+            parameters[0] = param;
+            System.arraycopy(extra, 0, parameters, 1, parameters.length - 1);
+        }
+        return parameters;
+    }
+
+    private InstanceSlots.Slot findFreeInstance() throws ServiceCallException {
         try {
-            if (available.isEmpty()) {
-                if (inAction.size() >= maximumInstances) {
-                    log.warn("Services Pool for {} is exhausted.", serviceId);
-                    waitForFreeInstances(instancesLock);
-                } else {
-                    registerServiceInstance();
+            while (true) {
+                if (!fairCheckout || waiting.get() == 0) {
+                    final InstanceSlots.Slot slot = checkoutHealthy();
+                    if (slot != null) {
+                        if (spareInstances > 0 && slots.available() < spareInstances) {
+                            requestBackgroundBuilding();
+                        }
+                        return slot;
+                    }
+                    if (mayBuildInline()) {
+                        final InstanceSlots.Slot reserved = slots.reserve();
+                        if (reserved != null) {
+                            return registerServiceInstance(reserved);
+                        }
+                    }
+                    if (slots.isFull()) {
+                        metrics.exhausted();
+                        log.warn("Services Pool for {} is exhausted.", serviceId);
+                    }
+                }
+                if (spareInstances > 0) {
+                    requestBackgroundBuilding();
+                }
+                // the slow path, waiting for released or built instance
+                final InstanceSlots.Slot slot = waitForFreeInstance();
+                if (slot.isReserved()) {
+                    return registerServiceInstance(slot);
+                }
+                if (!validateOnBorrow || isHealthy(slot.getInstance())) {
+                    return slot;
                 }
+                discardServiceInstance(slot);
             }
-            return returnInActionService();
         } catch (InvalidServiceMetaInformation e) {
             log.error("Wrong service-meta ", e);
             shutdown();
             throw new ServiceCallException("Pool is not valid", e);
-        } finally {
-            instancesLock.unlock();
         }
     }
 
-    private void exclusiveDelay(long delay){
-        if (delay <= 0L){
-            return;
+    // to take idle instance, broken instances are thrown away
+    private InstanceSlots.Slot checkoutHealthy() {
+        InstanceSlots.Slot slot;
+        while ((slot = slots.checkout()) != null && validateOnBorrow && !isHealthy(slot.getInstance())) {
+            discardServiceInstance(slot);
         }
+        return slot;
+    }
+
+    private boolean isHealthy(Object serviceInstance) {
+        final Predicate<Object> validator = instanceValidator;
         try {
-            serviceBuilderSemaphore.acquire();
-            TimeUnit.MILLISECONDS.sleep(delay);
+            return validator == null || validator.test(serviceInstance);
+        } catch (RuntimeException e) {
+            log.debug("Cannot check service instance " + serviceInstance, e);
+            return false;
+        }
+    }
+
+    private void closeInstanceBuilder(AutoCloseable builder) {
+        try {
+            builder.close();
         } catch (Exception e) {
-            log.error("Cannot exclusive delay", e);
+            log.warn("Cannot close builder of instances of " + serviceId, e);
+        }
+    }
+
+    private boolean isBroken(Throwable failure) {
+        try {
+            return brokenInstanceFailure.test(failure);
+        } catch (RuntimeException e) {
+            log.debug("Cannot classify failure of " + serviceId, e);
+            return false;
+        }
+    }
+
+    // transport failure is I/O error or JAX-WS error except SOAP fault (the service answered)
+    private static boolean isTransportFailure(Throwable failure) {
+        if (Failures.isInterruption(failure)) {
+            // call is stopped by the pool (cancel or timeout), instance isn't broken
+            return false;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof java.io.IOException) {
+                return true;
+            }
+            // classes are checked by names, JAX-WS may be absent at runtime
+            for (Class<?> type = cause.getClass(); type != null; type = type.getSuperclass()) {
+                if ("javax.xml.ws.soap.SOAPFaultException".equals(type.getName())) {
+                    return false;
+                }
+                if ("javax.xml.ws.WebServiceException".equals(type.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // caller builds instance itself if there is no background builder or it cannot build
+    private boolean mayBuildInline() {
+        return spareInstances == 0 || backgroundBuildFailed;
+    }
+
+    private void requestBackgroundBuilding() {
+        final ExecutorService builder = backgroundBuilder;
+        if (builder != null && building.compareAndSet(false, true)) {
+            try {
+                builder.execute(this::buildInBackground);
+            } catch (RejectedExecutionException e) {
+                building.set(false);
+            }
+        }
+    }
+
+    private void buildInBackground() {
+        try {
+            while (active && needsBuilding()) {
+                final InstanceSlots.Slot slot = slots.reserve();
+                if (slot == null) {
+                    // thrown away instances are already replaced by callers
+                    replacements.set(0);
+                    break;
+                }
+                freeServiceInstance(registerServiceInstance(slot));
+                replacements.getAndUpdate(pending -> pending > 0 ? pending - 1 : 0);
+                backgroundBuildFailed = false;
+            }
+        } catch (Throwable t) {
+            if (active) {
+                log.warn("Cannot make instance of " + serviceId + " in background", t);
+            }
+            // waiting callers should make instance themselves
+            backgroundBuildFailed = true;
+            replacements.set(0);
+            signalAllWaiters();
         } finally {
-            serviceBuilderSemaphore.release();
+            building.set(false);
         }
+        if (active && !backgroundBuildFailed && !slots.isFull() && needsBuilding()) {
+            requestBackgroundBuilding();
+        }
+    }
+
+    private boolean needsBuilding() {
+        return replacements.get() > 0 || spareInstances > 0 && slots.available() < spareInstances + waiting.get();
     }
 
-    private void registerServiceInstance() throws InvalidServiceMetaInformation {
+    private InstanceSlots.Slot registerServiceInstance(InstanceSlots.Slot slot) throws InvalidServiceMetaInformation, ServiceCallException {
         log.debug("Making new service instance for Id: {} / Facade: '{}'", serviceId, interfaceClass);
-        serviceBuilderSemaphore.acquireUninterruptibly();
         try {
-            TimeUnit.MILLISECONDS.sleep(exclusiveDelayValue);
+            creationPacer.acquire();
+            final long started = System.nanoTime();
             final Object serviceInstance = instanceBuilder.apply(interfaceClass);
+            metrics.instanceCreated(System.nanoTime() - started);
             if (interfaceClass.isInstance(serviceInstance)) {
-                available.push(serviceInstance);
+                slots.fill(slot, serviceInstance);
+                return slot;
             } else {
                 throw new InvalidServiceMetaInformation("Incompatible facade interface and built realization.");
             }
         } catch (InterruptedException e) {
-            log.error("Service Instance Builder Timeout fail", e);
+            Thread.currentThread().interrupt();
+            throw new ServiceCallException("Making instance of " + serviceId + " is interrupted.", e);
         } finally {
-            serviceBuilderSemaphore.release();
+            if (slot.isReserved()) {
+                // instance is not built
+                slots.release(slot);
+            }
         }
     }
 
-    private void waitForFreeInstances(Lock instancesLock) {
+    private InstanceSlots.Slot waitForFreeInstance() throws ServiceCallException {
         log.debug("******* Waiting for free instance");
-        while (inAction.size() >= maximumInstances) {
+        instancesLock.lock();
+        final InstanceWaiter waiter = new InstanceWaiter(instancesLock.newCondition());
+        waiters.addLast(waiter);
+        waiting.incrementAndGet();
+        long nanos = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutValue);
+        try {
+            while (true) {
+                if (waiter.slot != null) {
+                    return waiter.slot;
+                }
+                if (!fairCheckout || waiters.peekFirst() == waiter) {
+                    final InstanceSlots.Slot slot = slots.checkout();
+                    if (slot != null) {
+                        return slot;
+                    }
+                    final InstanceSlots.Slot reserved = mayBuildInline() ? slots.reserve() : null;
+                    if (reserved != null) {
+                        return reserved;
+                    }
+                }
+                if (!active) {
+                    throw new ServiceCallException("Pool for " + serviceId + " is stopped.");
+                }
+                if (acquireTimeoutValue <= 0) {
+                    waiter.released.await();
+                } else if (nanos > 0) {
+                    nanos = waiter.released.awaitNanos(nanos);
+                } else {
+                    throw new InstanceAcquireTimeoutException("No free instance of " + serviceId, serviceId, acquireTimeoutValue);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (waiter.slot != null) {
+                // the instance is already given to interrupted caller
+                slots.checkin(waiter.slot);
+            }
+            throw new ServiceCallException("Waiting for free instance of " + serviceId + " is interrupted.", e);
+        } finally {
+            waiters.remove(waiter);
+            waiting.decrementAndGet();
+            if (!waiters.isEmpty()) {
+                // pass the turn to next waiting caller
+                waiters.peekFirst().released.signal();
+            }
             instancesLock.unlock();
+        }
+    }
+
+    private int warmUpParallelism() {
+        return Math.max(1, Math.min(startupParallelism, minimumInstances));
+    }
+
+    private void warmUp(AtomicInteger remaining) {
+        try {
+            while (active && remaining.getAndDecrement() > 0) {
+                final InstanceSlots.Slot slot = slots.reserve();
+                if (slot == null) {
+                    break;
+                }
+                freeServiceInstance(registerServiceInstance(slot));
+            }
+        } catch (ServiceCallException | InvalidServiceMetaInformation e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private synchronized void startMaintenance() {
+        if (!active) {
+            return;
+        }
+        backgroundBuildFailed = false;
+        backgroundBuilder = Executors.newSingleThreadExecutor(CallExecutors.daemonThreads(serviceId + "-builder-"));
+        requestBackgroundBuilding();
+        final boolean sweeping = validationIntervalValue > 0 && instanceValidator != null;
+        final List<OperationCall<?>> materialized = materializedCalls().collect(Collectors.toList());
+        if (adaptiveSizing || sweeping || !materialized.isEmpty()) {
+            maintenanceScheduler = Executors.newSingleThreadScheduledExecutor(CallExecutors.daemonThreads(serviceId + "-maintenance-"));
+        }
+        if (adaptiveSizing) {
+            final PoolSizer sizer = new PoolSizer(minimumInstances, maximumInstances, metrics.busyNanos(), System.nanoTime());
+            maintenanceScheduler.scheduleWithFixedDelay(() -> adjustSize(sizer), sizingIntervalValue, sizingIntervalValue, TimeUnit.MILLISECONDS);
+        }
+        if (sweeping) {
+            maintenanceScheduler.scheduleWithFixedDelay(this::sweepIdleInstances, validationIntervalValue, validationIntervalValue, TimeUnit.MILLISECONDS);
+        }
+        for (final OperationCall<?> call : materialized) {
+            final long period = call.materialized.getRefreshIntervalValue();
+            maintenanceScheduler.scheduleWithFixedDelay(() -> requestRefresh(call), 0L, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void sweepIdleInstances() {
+        try {
+            final List<Object> broken = slots.retireInvalid(this::isHealthy);
+            broken.forEach(serviceInstance -> {
+                metrics.discarded();
+                dispose(serviceInstance);
+            });
+            if (!broken.isEmpty() && active) {
+                log.info("Thrown away {} broken idle instances of {}", broken.size(), serviceId);
+                replacements.addAndGet(broken.size());
+                requestBackgroundBuilding();
+            }
+            if (waiting.get() > 0) {
+                // checked instances are idle again
+                signalFirstWaiter();
+            }
+        } catch (Throwable t) {
+            log.warn("Cannot check idle instances of " + serviceId, t);
+        }
+    }
+
+    private void adjustSize(PoolSizer sizer) {
+        try {
+            final InstanceSlots current = slots;
+            final int target = sizer.target(current.inUse(), waiting.get(), metrics.busyNanos(), System.nanoTime());
+            // making instances in advance
+            for (int size = current.size(); size < target && active; size++) {
+                final InstanceSlots.Slot slot = current.reserve();
+                if (slot == null) {
+                    break;
+                }
+                freeServiceInstance(registerServiceInstance(slot));
+            }
+            // throwing away instances which are idle for long time
+            final int surplus = current.size() - target;
+            if (surplus > 0 && idleTimeoutValue > 0) {
+                final long idleSince = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleTimeoutValue);
+                current.retireIdle(idleSince, surplus).forEach(ServiceInstancesPool::dispose);
+            }
+        } catch (Throwable t) {
+            log.warn("Cannot adjust size of pool for " + serviceId, t);
+        }
+    }
+
+    private static void dispose(Object serviceInstance) {
+        if (serviceInstance instanceof AutoCloseable) {
             try {
-                TimeUnit.MILLISECONDS.sleep(500);
-            } catch (InterruptedException e) {
-                log.error("Sleep exception", e);
+                ((AutoCloseable) serviceInstance).close();
+            } catch (Exception e) {
+                log.debug("Cannot close service instance", e);
+            }
+        }
+    }
+
+    // to return instance after call, broken instance is thrown away and replaced
+    private void returnServiceInstance(InstanceSlots.Slot slot, Throwable failure) {
+        if (failure != null && isBroken(failure) || validateOnReturn && !isHealthy(slot.getInstance())) {
+            discardServiceInstance(slot);
+        } else {
+            freeServiceInstance(slot);
+        }
+    }
+
+    private void discardServiceInstance(InstanceSlots.Slot slot) {
+        final Object serviceInstance = slot.getInstance();
+        log.debug("Throw away broken service instance {} of {}", serviceInstance, serviceId);
+        slots.release(slot);
+        metrics.discarded();
+        dispose(serviceInstance);
+        if (!active) {
+            return;
+        }
+        replacements.incrementAndGet();
+        requestBackgroundBuilding();
+        if (waiting.get() > 0) {
+            // the slot is empty, waiting caller may make instance itself
+            signalFirstWaiter();
+        }
+    }
+
+    private void freeServiceInstance(InstanceSlots.Slot slot) {
+        if (!active) {
+            log.debug("Throw away service instance {} of stopped pool", slot.getInstance());
+            slots.release(slot);
+            return;
+        }
+        if (waiting.get() > 0 && handOverInstance(slot)) {
+            return;
+        }
+        if (!slots.checkin(slot)) {
+            log.error("Strange service instance {}", slot.getInstance());
+        } else if (waiting.get() > 0) {
+            signalFirstWaiter();
+        }
+    }
+
+    private boolean handOverInstance(InstanceSlots.Slot slot) {
+        if (!fairCheckout) {
+            return false;
+        }
+        instancesLock.lock();
+        try {
+            final InstanceWaiter waiter = waiters.pollFirst();
+            if (waiter == null) {
+                return false;
             }
-            instancesLock.lock();
+            // hand over busy instance to the longest waiting caller
+            waiter.slot = slot;
+            waiter.released.signal();
+            return true;
+        } finally {
+            instancesLock.unlock();
         }
     }
 
-    private Object returnInActionService() {
-        final Object service = available.pop();
-        inAction.add(service);
-        return service;
+    private void signalAllWaiters() {
+        instancesLock.lock();
+        try {
+            waiters.forEach(waiter -> waiter.released.signal());
+        } finally {
+            instancesLock.unlock();
+        }
     }
 
-    private void freeServiceInstance(Object serviceInstance) {
+    private void signalFirstWaiter() {
         instancesLock.lock();
         try {
-            if (inAction.remove(serviceInstance) && active) {
-                available.push(serviceInstance);
-                TimeUnit.MILLISECONDS.sleep(20);
-            } else {
-                log.error("Strange service instance {}", serviceInstance);
+            final InstanceWaiter waiter = waiters.peekFirst();
+            if (waiter != null) {
+                waiter.released.signal();
             }
-        } catch (InterruptedException e) {
-            log.error("Free Instance Timeout.", e);
         } finally {
             instancesLock.unlock();
         }
@@ -355,19 +1337,19 @@ public class ServiceInstancesPool implements ServiceMeta, ServiceImpl {
     /**
      * For test purposes only
      *
-     * @return available instances stack
+     * @return available instances
      */
-    Stack getAvailable() {
-        return available;
+    Collection getAvailable() {
+        return slots.instances(InstanceSlots.IDLE);
     }
 
     /**
      * For test purposes only
      *
-     * @return in-action instances set
+     * @return in-action instances
      */
-    Set getInAction() {
-        return inAction;
+    Collection getInAction() {
+        return slots.instances(InstanceSlots.BUSY);
     }
 
     /**
@@ -380,11 +1362,118 @@ public class ServiceInstancesPool implements ServiceMeta, ServiceImpl {
     }
 
     // inner classes
+    private static class InstanceWaiter {
+        private final Condition released;
+        private InstanceSlots.Slot slot;
+
+        private InstanceWaiter(Condition released) {
+            this.released = released;
+        }
+    }
+
+    private class AsyncCall<R> implements Runnable {
+        private final OperationCall<R> call;
+        private final Object param;
+        private final Object[] extra;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        // permits of asynchronous calls of the pool
+        private final Semaphore permits;
+        // thread which executes the call
+        private Thread runner;
+        private boolean started;
+        private boolean released;
+
+        private AsyncCall(OperationCall<R> call, Object param, Object[] extra, Semaphore permits) {
+            this.call = call;
+            this.param = param;
+            this.extra = extra;
+            this.permits = permits;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!begin()) {
+                    return;
+                }
+                try {
+                    future.complete(call.invoke(param, extra));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    end();
+                }
+            } finally {
+                release();
+            }
+        }
+
+        // to give back permit of asynchronous call once
+        private void release() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            permits.release();
+        }
+
+        private synchronized boolean begin() {
+            if (future.isDone()) {
+                return false;
+            }
+            runner = Thread.currentThread();
+            started = true;
+            return true;
+        }
+
+        private synchronized void end() {
+            runner = null;
+            // clear interruption made by stop
+            Thread.interrupted();
+        }
+
+        // to interrupt running call, returns false if call is not started yet
+        private synchronized boolean stop() {
+            if (runner != null && runner != Thread.currentThread()) {
+                runner.interrupt();
+            }
+            return started;
+        }
+    }
+
+    /**
+     * Call of operation, it's created once at import and shared between threads
+     *
+     * @param <R> type of result
+     */
     private class OperationCall<R> implements Call<R, Object> {
         private final String name;
+        // overloads of operation
+        private final OperationDispatcher dispatcher;
+        // durations of operation methods execution
+        private final LatencyHistogram latency;
+        // limit of concurrent calls of operation (null - calls are limited by pool size only)
+        private final OperationBulkhead bulkhead;
+        // single-flight of equal calls (null - every call is executed)
+        private final CallCoalescer coalescer;
+        // time to live of cached result (0 - result isn't cached)
+        private final long cacheTtlNanos;
+        // the latest result of parameterless call which is refreshed in background (null - every call is executed)
+        private final MaterializedResult materialized;
 
         public OperationCall(String name) {
             this.name = name;
+            this.dispatcher = new OperationDispatcher(name, operations.get(name), invokers);
+            this.latency = metrics.operation(name);
+            this.bulkhead = makeBulkhead(name, operations.get(name));
+            this.coalescer = operations.get(name).stream().anyMatch(Operation::isCoalesced) ? new CallCoalescer(metrics::coalesced) : null;
+            this.cacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(operations.get(name).stream().mapToLong(Operation::getCacheTtlValue).max().orElse(0L));
+            final long refreshInterval = operations.get(name).stream()
+                    .filter(operation -> operation.getParameterClass() == Void.class)
+                    .mapToLong(Operation::getRefreshIntervalValue).max().orElse(0L);
+            this.materialized = refreshInterval > 0L ? new MaterializedResult(name, refreshInterval, metrics::coalesced) : null;
         }
 
         /**
@@ -418,51 +1507,72 @@ public class ServiceInstancesPool implements ServiceMeta, ServiceImpl {
          */
         @Override
         public R invoke() throws ServiceCallException {
-            return (R) executeCall(this, null);
+            return (R) executeCall(this, 0, null, null, null);
         }
 
-        // private methods
-        private ServiceMeta.Operation getValidOperation(Object[] params) throws ServiceCallException {
-            if (StringUtils.isEmpty(name) || !operations.containsKey(name)) {
-                throw new OperationNotFoundException("Not found", name);
-            }
-            for (final ServiceMeta.Operation operation : operations.get(name)) {
-                if (isSuit(operation, params)) {
-                    log.debug("Found appropriate operation '{}'", operation);
-                    return operation;
-                }
-            }
-            throw new OperationParameterTypeIsInvalidException("Not found", name, 0);
+        /**
+         * To invoke operation of service without parameters
+         *
+         * @return result of operation
+         * @throws ServiceCallException throws if cannot execute operation
+         */
+        @Override
+        public R invoke0() throws ServiceCallException {
+            return result(executeCall(this, 0, null, null, null));
         }
 
-        private boolean isSuit(ServiceMeta.Operation operation, Object[] params) {
-            if (ObjectUtils.isEmpty(params) || operation.getParameterClass() == Void.class) {
-                // stop processing parameters
-                log.debug("No actual parameters in call operation '{}'", name);
-                return operation.getParameterClass() == Void.class;
-            }
-            final Object obligateParameter = params[0];
-            if (!operation.getParameterClass().isInstance(obligateParameter)) {
-                log.debug("Incompatible classes of first operation parameter");
-                return false;
-            }
-            if (params.length == 1) {
-                log.debug("Only one actual parameter for operation '{}' ({})", name, obligateParameter);
-                return true;
-            }
-            final Object extraParameter = params[1];
-            if (ObjectUtils.isEmpty(extraParameter)) {
-                // stop processing parameters
-                return operation.getExtraParameterClasses().length == 0;
-            }
-            if (!ObjectUtils.isEmpty(operation.getExtraParameterClasses()) && !operation.getExtraParameterClasses()[0].isInstance(extraParameter)) {
-                log.debug("Incompatible classes of second operation parameter");
-                return false;
-            }
-            log.debug("Passed two actual parameter for operation '{}' ({}, {})", name, obligateParameter, extraParameter);
-            return true;
+        /**
+         * To invoke operation of service with one parameter
+         *
+         * @param param obligated parameter of operation
+         * @return result of operation
+         * @throws ServiceCallException throws if cannot execute operation
+         */
+        @Override
+        public R invoke1(Object param) throws ServiceCallException {
+            return result(ObjectUtils.isEmpty(param) ? executeCall(this, 0, null, null, null) : executeCall(this, 1, param, null, null));
+        }
+
+        /**
+         * To invoke operation of service with parameter and one extra parameter
+         *
+         * @param param obligated parameter of operation
+         * @param extra extra parameter of operation
+         * @return result of operation
+         * @throws ServiceCallException throws if cannot execute operation
+         */
+        @Override
+        public R invoke2(Object param, Object extra) throws ServiceCallException {
+            return result(ObjectUtils.isEmpty(param) ? executeCall(this, 0, null, null, null) : executeCall(this, 2, param, extra, null));
         }
 
+        /**
+         * To invoke operation of service asynchronously
+         *
+         * @param param obligated parameter of operation
+         * @param extra extra parameters of operation
+         * @return future of operation result, cancel of the future releases the call
+         */
+        @Override
+        public CompletableFuture<R> invokeAsync(Object param, Object... extra) {
+            return submitCall(this, param, extra);
+        }
+
+        /**
+         * To invoke operation of service without parameters asynchronously
+         *
+         * @return future of operation result, cancel of the future releases the call
+         */
+        @Override
+        public CompletableFuture<R> invokeAsync() {
+            return submitCall(this, null);
+        }
+
+        // result of operation has type of the call
+        @SuppressWarnings("unchecked")
+        private R result(Object result) {
+            return (R) result;
+        }
     }
 
 }
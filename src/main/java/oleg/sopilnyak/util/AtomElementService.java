@@ -4,29 +4,169 @@ import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.jdom2.input.SAXBuilder;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Service to extract responses from Periodical SOAP Service
+ * Service to extract responses from Periodical SOAP Service<BR/>
+ * Names of elements may be extracted by streaming parser, it doesn't build the tree of data-set,
+ * so used memory doesn't depend on size of response
  */
 public class AtomElementService {
-    private final static SAXBuilder builder = new SAXBuilder();
+    // SAXBuilder cannot parse in several threads at once
+    private final static ThreadLocal<SAXBuilder> builder = ThreadLocal.withInitial(SAXBuilder::new);
+    private final static ThreadLocal<XMLInputFactory> factory = ThreadLocal.withInitial(AtomElementService::makeFactory);
 
     public static List<String> atomElements(String atoms) throws JDOMException, IOException {
         final List<String> result = new ArrayList<>();
-        final Element dataSet = builder.build(new StringReader(atoms)).getRootElement();
+        final Element dataSet = builder.get().build(new StringReader(atoms)).getRootElement();
         for (final Element table : dataSet.getChildren("Table")) {
             String atom = table.getChildTextTrim("ElementName");
             result.add(atom);
         }
         return result;
     }
+
     public static  String atomParameter(String xml, String parameter) throws JDOMException, IOException {
-        final Element dataSet = builder.build(new StringReader(xml)).getRootElement();
+        final Element dataSet = builder.get().build(new StringReader(xml)).getRootElement();
         final Element table = dataSet.getChild("Table");
         return  table.getChildTextTrim(parameter);
     }
+
+    /**
+     * To pass names of elements of data-set to consumer while the data-set is parsed
+     *
+     * @param atoms    reader of data-set
+     * @param consumer consumer of names (null for table without name)
+     * @throws XMLStreamException if data-set is not well-formed
+     */
+    public static void atomElements(Reader atoms, Consumer<String> consumer) throws XMLStreamException {
+        final ElementNames names = new ElementNames(factory.get().createXMLStreamReader(atoms));
+        try {
+            while (names.advance()) {
+                consumer.accept(names.next);
+            }
+        } finally {
+            names.close();
+        }
+    }
+
+    /**
+     * To get names of elements of data-set as lazy stream, data-set is parsed while stream is consumed
+     *
+     * @param atoms reader of data-set
+     * @return stream of names (null for table without name), it should be closed if it's not consumed to the end
+     * @throws XMLStreamException if parser cannot be made
+     * @throws IllegalStateException while stream is consumed, if data-set is not well-formed
+     */
+    public static Stream<String> atomElementsStream(Reader atoms) throws XMLStreamException {
+        final ElementNames names = new ElementNames(factory.get().createXMLStreamReader(atoms));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(names, Spliterator.ORDERED), false)
+                .onClose(names::close);
+    }
+
+    // private methods
+    private static XMLInputFactory makeFactory() {
+        final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return inputFactory;
+    }
+
+    // inner classes
+
+    /**
+     * Pull parser of names of elements, it keeps only current name
+     */
+    private static class ElementNames implements Iterator<String> {
+        // depths of data-set elements
+        private static final int TABLE = 2;
+        private static final int NAME = 3;
+
+        private final XMLStreamReader reader;
+        private int depth;
+        private boolean inTable;
+        private boolean named;
+        // the name which is found and not given yet
+        private String next;
+        private boolean found;
+
+        private ElementNames(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return found || advance();
+            } catch (XMLStreamException e) {
+                close();
+                throw new IllegalStateException("Wrong data-set", e);
+            }
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            found = false;
+            return next;
+        }
+
+        // to move to next name of element
+        private boolean advance() throws XMLStreamException {
+            found = false;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        depth++;
+                        if (depth == TABLE && "Table".equals(reader.getLocalName())) {
+                            inTable = true;
+                            named = false;
+                        } else if (depth == NAME && inTable && !named && "ElementName".equals(reader.getLocalName())) {
+                            // reader is moved to the end of element
+                            next = reader.getElementText().trim();
+                            depth--;
+                            named = true;
+                            return found = true;
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (depth == TABLE && inTable) {
+                            inTable = false;
+                            if (!named) {
+                                next = null;
+                                depth--;
+                                return found = true;
+                            }
+                        }
+                        depth--;
+                        break;
+                    default:
+                        // text between elements is skipped
+                }
+            }
+            close();
+            return false;
+        }
+
+        private void close() {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // nothing to release
+            }
+        }
+    }
 }
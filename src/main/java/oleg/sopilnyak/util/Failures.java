@@ -0,0 +1,29 @@
+package oleg.sopilnyak.util;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedByInterruptException;
+
+/**
+ * Classifier of failures of service calls
+ */
+public final class Failures {
+    private Failures() {
+    }
+
+    /**
+     * To check is the call stopped by interruption, the interruption may be wrapped by failures of transport
+     *
+     * @param failure failure of the call
+     * @return true if there is interruption in the chain of causes (socket timeout isn't interruption)
+     */
+    public static boolean isInterruption(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof InterruptedException || cause instanceof ClosedByInterruptException
+                    || cause instanceof InterruptedIOException && !(cause instanceof SocketTimeoutException)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+package oleg.sopilnyak.builder.impl;
+
+import net.webservicex.Periodictable;
+import net.webservicex.PeriodictableSoap;
+import oleg.sopilnyak.standin.PeriodictableStandIn;
+import oleg.sopilnyak.util.AtomElementService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Integration test for builder of JAX-WS ports,<BR/>
+ * test interacts with local stand-in of http://www.webservicex.net/periodictable.asmx
+ */
+public class JaxWsInstanceBuilderIT {
+    private final PeriodictableStandIn standIn = new PeriodictableStandIn();
+
+    @Before
+    public void setUp() throws Exception {
+        standIn.start();
+    }
+
+    @After
+    public void tearDown() {
+        standIn.stop();
+    }
+
+    @Test
+    public void sharedService() throws Exception {
+        JaxWsInstanceBuilder builder = JaxWsInstanceBuilder.of(Periodictable.class).wsdlLocation(standIn.getWsdlLocation());
+
+        long started = System.currentTimeMillis();
+        PeriodictableSoap first = (PeriodictableSoap) builder.apply(PeriodictableSoap.class);
+        System.out.println(System.currentTimeMillis() - started + " msec spend to make first port");
+        started = System.currentTimeMillis();
+        PeriodictableSoap second = (PeriodictableSoap) builder.apply(PeriodictableSoap.class);
+        System.out.println(System.currentTimeMillis() - started + " msec spend to make second port");
+
+        assertNotSame(first, second);
+        assertSame(builder.service(), builder.service());
+        assertNotSame(builder.service(), JaxWsInstanceBuilder.of(Periodictable.class).wsdlLocation(standIn.getWsdlLocation()).service());
+        assertEquals("H", AtomElementService.atomParameter(second.getElementSymbol("Hydrogen"), "Symbol"));
+    }
+
+    @Test
+    public void releasedService() throws Exception {
+        JaxWsInstanceBuilder builder = JaxWsInstanceBuilder.of(Periodictable.class).wsdlLocation(standIn.getWsdlLocation());
+        Object service = builder.service();
+
+        builder.close();
+        assertNotSame(service, builder.service());
+        PeriodictableSoap port = (PeriodictableSoap) builder.apply(PeriodictableSoap.class);
+        assertEquals("H", AtomElementService.atomParameter(port.getElementSymbol("Hydrogen"), "Symbol"));
+    }
+
+    @Test
+    public void localWsdl() throws Exception {
+        JaxWsInstanceBuilder builder = JaxWsInstanceBuilder.of(Periodictable.class)
+                .localWsdl("periodictable.wsdl")
+                .endpointAddress(standIn.getAddress());
+
+        PeriodictableSoap port = (PeriodictableSoap) builder.apply(PeriodictableSoap.class);
+
+        assertEquals("12.0107", AtomElementService.atomParameter(port.getAtomicWeight("Carbon"), "AtomicWeight"));
+        // WSDL was not requested from service
+        assertEquals(1, standIn.getRequests());
+    }
+}
@@ -11,6 +11,8 @@ import java.lang.reflect.Method;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -60,6 +62,43 @@ public class OperationBuilderImplTest {
         assertEquals(Void.class, operationBuilder.result(resultClass).build().getResultClass());
     }
 
+    @Test
+    public void concurrentCalls() {
+        ServiceMeta.Operation limited = operationBuilder.name("heavy").maxConcurrentCalls(2).maxWaitingCalls(5).build();
+
+        assertEquals(2, limited.getMaxConcurrentCalls());
+        assertEquals(5, limited.getMaxWaitingCalls());
+        assertEquals(2, new OperationBuilderImpl(limited).build().getMaxConcurrentCalls());
+        assertEquals(0, operationBuilder.apply(fakeOperation()).build().getMaxConcurrentCalls());
+    }
+
+    @Test
+    public void coalesced() {
+        ServiceMeta.Operation coalesced = operationBuilder.name("lookup").coalesced(true).build();
+
+        assertTrue(coalesced.isCoalesced());
+        assertTrue(new OperationBuilderImpl(coalesced).build().isCoalesced());
+        assertFalse(operationBuilder.apply(fakeOperation()).build().isCoalesced());
+    }
+
+    @Test
+    public void cacheTtlValue() {
+        ServiceMeta.Operation cached = operationBuilder.name("lookup").cacheTtlValue(60_000).build();
+
+        assertEquals(60_000, cached.getCacheTtlValue());
+        assertEquals(60_000, new OperationBuilderImpl(cached).build().getCacheTtlValue());
+        assertEquals(0, operationBuilder.apply(fakeOperation()).build().getCacheTtlValue());
+    }
+
+    @Test
+    public void refreshIntervalValue() {
+        ServiceMeta.Operation materialized = operationBuilder.name("getAtoms").refreshIntervalValue(30_000).build();
+
+        assertEquals(30_000, materialized.getRefreshIntervalValue());
+        assertEquals(30_000, new OperationBuilderImpl(materialized).build().getRefreshIntervalValue());
+        assertEquals(0, operationBuilder.apply(fakeOperation()).build().getRefreshIntervalValue());
+    }
+
     @Test
     public void method() throws NoSuchMethodException {
         Method toString = Double.class.getDeclaredMethod("toString");
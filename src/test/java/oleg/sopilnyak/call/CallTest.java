@@ -0,0 +1,52 @@
+package oleg.sopilnyak.call;
+
+import oleg.sopilnyak.exception.ServiceCallException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CallTest {
+    // implementation of Call outside of the pool, it has only obligated methods
+    private final Call<String, Object> call = new Call<String, Object>() {
+        @Override
+        public String getOperationName() {
+            return "echo";
+        }
+
+        @Override
+        public String invoke(Object param, Object... extra) throws ServiceCallException {
+            if ("fault".equals(param)) {
+                throw new ServiceCallException("fault");
+            }
+            return param + Arrays.toString(extra);
+        }
+
+        @Override
+        public String invoke() throws ServiceCallException {
+            return "none";
+        }
+    };
+
+    @Test
+    public void arityInvokes() throws Exception {
+        assertEquals("none", call.invoke0());
+        assertEquals("1[]", call.invoke1(1));
+        assertEquals("1[2]", call.invoke2(1, 2));
+    }
+
+    @Test
+    public void asyncInvokes() throws Exception {
+        assertEquals("none", call.invokeAsync().get(1, TimeUnit.SECONDS));
+        assertEquals("1[2, 3]", call.invokeAsync(1, 2, 3).get(1, TimeUnit.SECONDS));
+        try {
+            call.invokeAsync("fault").get(1, TimeUnit.SECONDS);
+            fail("Call should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ServiceCallException);
+        }
+    }
+}
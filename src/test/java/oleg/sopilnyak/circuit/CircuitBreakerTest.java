@@ -0,0 +1,111 @@
+package oleg.sopilnyak.circuit;
+
+import org.junit.Test;
+
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final CircuitBreaker.Settings settings = new CircuitBreaker.Settings()
+            .windowSize(4).minimumCalls(4).failureRateThreshold(50).openDurationValue(200).halfOpenCalls(2);
+
+    @Test
+    public void failureRate() {
+        CircuitBreaker breaker = new CircuitBreaker("test", settings);
+        breaker.onSuccess(FAST);
+        breaker.onFailure(FAST, new IllegalStateException());
+        breaker.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        // interruption isn't a failure of the service
+        breaker.onFailure(FAST, new InterruptedException());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        // window slides, the first success is gone
+        breaker.onFailure(FAST, new IllegalStateException());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void slowCallRate() {
+        CircuitBreaker breaker = new CircuitBreaker("test", settings.slowCallDurationValue(50).slowCallRateThreshold(75));
+        breaker.onSuccess(SLOW);
+        breaker.onSuccess(SLOW);
+        breaker.onSuccess(FAST);
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess(SLOW);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void wrappedInterruption() {
+        CircuitBreaker breaker = new CircuitBreaker("test", settings);
+        // call is stopped by interruption inside of transport
+        breaker.onFailure(FAST, new UncheckedIOException(new InterruptedIOException("Read interrupted")));
+        breaker.onFailure(FAST, new RuntimeException(new ClosedByInterruptException()));
+        breaker.onFailure(FAST, new IllegalStateException(new InterruptedException()));
+        breaker.onFailure(FAST, new UncheckedIOException(new InterruptedIOException("Read interrupted")));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+
+        // timeout of socket is a failure of the service
+        breaker = new CircuitBreaker("test", settings);
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(FAST, new UncheckedIOException(new SocketTimeoutException("Read timed out")));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void halfOpenProbes() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", settings);
+        open(breaker);
+        TimeUnit.MILLISECONDS.sleep(250);
+
+        // only permitted quantity of probes
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        // not made call gives the probe back
+        breaker.release();
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void failedProbe() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", settings);
+        open(breaker);
+        TimeUnit.MILLISECONDS.sleep(250);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure(FAST, new IllegalStateException());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongWindow() {
+        new CircuitBreaker("test", new CircuitBreaker.Settings().windowSize(0));
+    }
+
+    private static void open(CircuitBreaker breaker) {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(FAST, new IllegalStateException());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,35 @@
+package oleg.sopilnyak.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 100, 1_000, 123_456, 10_000_000_000L}) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(value <= LatencyHistogram.highestValue(index));
+            assertTrue(index == 0 || value > LatencyHistogram.highestValue(index - 1));
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000);
+        }
+        LatencySnapshot snapshot = histogram.snapshot();
+
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(10_000_000, snapshot.getMax());
+        assertEquals(5_000_500, snapshot.getMean());
+        assertEquals(5_000_000, snapshot.getP50(), 5_000_000 / 16.0);
+        assertEquals(9_900_000, snapshot.getP99(), 9_900_000 / 16.0);
+        assertEquals(10_000_000, snapshot.percentile(100.0));
+        assertEquals(0, new LatencyHistogram().snapshot().getP99());
+    }
+}
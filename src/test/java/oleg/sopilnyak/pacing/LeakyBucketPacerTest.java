@@ -0,0 +1,38 @@
+package oleg.sopilnyak.pacing;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LeakyBucketPacerTest {
+
+    @Test
+    public void reserve() {
+        Pacer pacer = new LeakyBucketPacer(100, TimeUnit.MILLISECONDS);
+        assertEquals(0L, pacer.reserve());
+        long second = pacer.reserve();
+        long third = pacer.reserve();
+        assertTrue(second > TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(third > second);
+        assertTrue(third <= TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    public void tryAcquire() throws Exception {
+        Pacer pacer = new LeakyBucketPacer(50, TimeUnit.MILLISECONDS);
+        assertTrue(pacer.tryAcquire());
+        assertFalse(pacer.tryAcquire());
+        TimeUnit.MILLISECONDS.sleep(60);
+        assertTrue(pacer.tryAcquire());
+    }
+
+    @Test
+    public void withoutInterval() {
+        Pacer pacer = LeakyBucketPacer.of(0, TimeUnit.MILLISECONDS);
+        assertSame(Pacer.NONE, pacer);
+        assertEquals(0L, pacer.reserve());
+        assertTrue(pacer.tryAcquire());
+    }
+}
@@ -0,0 +1,35 @@
+package oleg.sopilnyak.pacing;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TokenBucketPacerTest {
+
+    @Test
+    public void burst() {
+        Pacer pacer = new TokenBucketPacer(10, 3);
+        assertTrue(pacer.tryAcquire());
+        assertTrue(pacer.tryAcquire());
+        assertTrue(pacer.tryAcquire());
+        assertFalse(pacer.tryAcquire());
+    }
+
+    @Test
+    public void reserve() {
+        Pacer pacer = new TokenBucketPacer(10, 2);
+        assertEquals(0L, pacer.reserve());
+        assertEquals(0L, pacer.reserve());
+        long third = pacer.reserve();
+        long fourth = pacer.reserve();
+        assertTrue(third > TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(fourth - third > TimeUnit.MILLISECONDS.toNanos(90));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongRate() {
+        new TokenBucketPacer(0, 1);
+    }
+}
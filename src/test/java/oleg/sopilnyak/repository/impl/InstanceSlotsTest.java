@@ -0,0 +1,121 @@
+package oleg.sopilnyak.repository.impl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class InstanceSlotsTest {
+
+    @Test
+    public void reserveAndCheckout() {
+        InstanceSlots slots = new InstanceSlots(2);
+        assertNull(slots.checkout());
+
+        InstanceSlots.Slot first = slots.reserve();
+        InstanceSlots.Slot second = slots.reserve();
+        assertNull(slots.reserve());
+        assertTrue(first.isReserved());
+
+        slots.fill(first, "first");
+        slots.fill(second, "second");
+        assertEquals(2, slots.inUse());
+        assertEquals(2, slots.instances(InstanceSlots.BUSY).size());
+
+        assertTrue(slots.checkin(first));
+        assertFalse(slots.checkin(first));
+        assertEquals(1, slots.inUse());
+        assertEquals("first", slots.checkout().getInstance());
+        assertNull(slots.checkout());
+
+        slots.release(second);
+        assertEquals(1, slots.size());
+        assertNotNull(slots.reserve());
+    }
+
+    @Test
+    public void lastUsedCheckout() {
+        InstanceSlots slots = new InstanceSlots(3);
+        List<InstanceSlots.Slot> taken = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            InstanceSlots.Slot slot = slots.reserve();
+            slots.fill(slot, "instance-" + i);
+            taken.add(slot);
+        }
+        slots.checkin(taken.get(0));
+        slots.checkin(taken.get(2));
+        slots.checkin(taken.get(1));
+        assertEquals("instance-1", slots.checkout().getInstance());
+        assertEquals("instance-2", slots.checkout().getInstance());
+        assertEquals("instance-0", slots.checkout().getInstance());
+        assertNull(slots.checkout());
+    }
+
+    @Test
+    public void checkoutDuringValidation() {
+        InstanceSlots slots = new InstanceSlots(1);
+        InstanceSlots.Slot slot = slots.reserve();
+        slots.fill(slot, "instance");
+        slots.checkin(slot);
+
+        // instance isn't given while it's checked
+        assertTrue(slots.retireInvalid(instance -> slots.checkout() == null).isEmpty());
+        assertEquals(1, slots.available());
+        assertSame(slot, slots.checkout());
+        assertNull(slots.checkout());
+
+        // retired slot is used again by new instance
+        slots.checkin(slot);
+        assertEquals(Collections.singletonList("instance"), slots.retireInvalid(instance -> false));
+        assertNull(slots.checkout());
+        InstanceSlots.Slot reserved = slots.reserve();
+        slots.fill(reserved, "new-instance");
+        slots.checkin(reserved);
+        assertEquals("new-instance", slots.checkout().getInstance());
+        assertNull(slots.checkout());
+    }
+
+    @Test
+    public void parallelCheckout() throws Exception {
+        InstanceSlots slots = new InstanceSlots(4);
+        for (int i = 0; i < 4; i++) {
+            InstanceSlots.Slot slot = slots.reserve();
+            slots.fill(slot, "instance-" + i);
+            slots.checkin(slot);
+        }
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger overflow = new AtomicInteger();
+        ScheduledExecutorService executorService = new ScheduledThreadPoolExecutor(8);
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < 10_000; j++) {
+                        InstanceSlots.Slot slot = slots.checkout();
+                        if (slot == null) {
+                            continue;
+                        }
+                        if (concurrent.incrementAndGet() > 4) {
+                            overflow.incrementAndGet();
+                        }
+                        concurrent.decrementAndGet();
+                        slots.checkin(slot);
+                    }
+                }, executorService));
+            }
+            futures.forEach(CompletableFuture::join);
+        } finally {
+            executorService.shutdown();
+        }
+        assertEquals(0, overflow.get());
+        assertEquals(0, slots.inUse());
+        assertEquals(4, slots.instances(InstanceSlots.IDLE).size());
+    }
+}
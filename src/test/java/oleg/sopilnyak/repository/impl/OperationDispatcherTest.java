@@ -0,0 +1,58 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.builder.OperationBuilder;
+import oleg.sopilnyak.builder.impl.ServiceBuilderImpl;
+import oleg.sopilnyak.exception.OperationParameterTypeIsInvalidException;
+import oleg.sopilnyak.repository.ServiceMeta;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertSame;
+
+public class OperationDispatcherTest {
+    private final OperationBuilder builder = new ServiceBuilderImpl().operationBuilder();
+    private final ServiceMeta.Operation stringOperation = builder.name("method").parameter(String.class).result(String.class).build();
+    private final ServiceMeta.Operation integerOperation = builder.name("method").parameter(Integer.class).parameterExtra(String.class).result(String.class).build();
+    private final ServiceMeta.Operation voidOperation = builder.name("method").parameter(Void.class).parameterExtra().result(String.class).build();
+
+    @Test
+    public void multipleOverloads() throws Exception {
+        OperationDispatcher dispatcher = new OperationDispatcher("method",
+                Arrays.asList(stringOperation, integerOperation, voidOperation), Collections.emptyMap());
+
+        assertSame(stringOperation, dispatcher.resolve(new Object[]{"one"}).getOperation());
+        assertSame(stringOperation, dispatcher.resolve(new Object[]{"one"}).getOperation());
+        assertSame(integerOperation, dispatcher.resolve(new Object[]{1}).getOperation());
+        assertSame(integerOperation, dispatcher.resolve(new Object[]{1, "two"}).getOperation());
+        // empty second parameter needs overload without extra parameters
+        assertSame(voidOperation, dispatcher.resolve(new Object[]{1, ""}).getOperation());
+        // the void overload is suitable for any parameters
+        assertSame(voidOperation, dispatcher.resolve(new Object[]{1, 2}).getOperation());
+        assertSame(voidOperation, dispatcher.resolve(new Object[]{2.0}).getOperation());
+        assertSame(voidOperation, dispatcher.resolve(new Object[0]).getOperation());
+    }
+
+    @Test
+    public void singleOverload() throws Exception {
+        OperationDispatcher dispatcher = new OperationDispatcher("method",
+                Collections.singletonList(integerOperation), Collections.emptyMap());
+
+        assertSame(integerOperation, dispatcher.resolve(new Object[]{1}).getOperation());
+        assertSame(integerOperation, dispatcher.resolve(1, "two", 2).getOperation());
+        try {
+            dispatcher.resolve(new Object[]{1, 2});
+        } catch (OperationParameterTypeIsInvalidException e) {
+            return;
+        }
+        throw new AssertionError("Second parameter should be rejected");
+    }
+
+    @Test(expected = OperationParameterTypeIsInvalidException.class)
+    public void withoutParameters() throws Exception {
+        OperationDispatcher dispatcher = new OperationDispatcher("method",
+                Arrays.asList(stringOperation, integerOperation), Collections.emptyMap());
+        dispatcher.resolve(new Object[0]);
+    }
+}
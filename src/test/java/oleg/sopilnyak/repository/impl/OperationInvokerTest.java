@@ -0,0 +1,79 @@
+package oleg.sopilnyak.repository.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class OperationInvokerTest {
+    private final Facade instance = new FacadeImpl();
+
+    @Test
+    public void generatedInvokers() throws Throwable {
+        assertEquals("none", OperationInvoker.of(Facade.class.getMethod("none")).invoke(instance, new Object[0]));
+        assertEquals("one", OperationInvoker.of(Facade.class.getMethod("one", String.class)).invoke(instance, new Object[]{"one"}));
+        assertEquals(5.0, OperationInvoker.of(Facade.class.getMethod("two", int.class, double.class)).invoke(instance, new Object[]{2, 3.0}));
+    }
+
+    @Test
+    public void methodHandleInvokers() throws Throwable {
+        assertNull(OperationInvoker.of(Facade.class.getMethod("nothing")).invoke(instance, new Object[0]));
+        assertEquals("abc", OperationInvoker.of(Facade.class.getMethod("three", String.class, String.class, String.class))
+                .invoke(instance, new Object[]{"a", "b", "c"}));
+        assertEquals("hidden", OperationInvoker.of(HiddenFacade.class.getMethod("hidden")).invoke(instance, new Object[0]));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void methodException() throws Throwable {
+        OperationInvoker.of(Facade.class.getMethod("one", String.class)).invoke(instance, new Object[]{null});
+    }
+
+    // inner classes
+    public interface Facade {
+        String none();
+
+        String one(String value);
+
+        double two(int first, double second);
+
+        void nothing();
+
+        String three(String first, String second, String third);
+    }
+
+    private interface HiddenFacade {
+        String hidden();
+    }
+
+    private static class FacadeImpl implements Facade, HiddenFacade {
+        @Override
+        public String none() {
+            return "none";
+        }
+
+        @Override
+        public String one(String value) {
+            if (value == null) throw new IllegalStateException();
+            return value;
+        }
+
+        @Override
+        public double two(int first, double second) {
+            return first + second;
+        }
+
+        @Override
+        public void nothing() {
+        }
+
+        @Override
+        public String three(String first, String second, String third) {
+            return first + second + third;
+        }
+
+        @Override
+        public String hidden() {
+            return "hidden";
+        }
+    }
+}
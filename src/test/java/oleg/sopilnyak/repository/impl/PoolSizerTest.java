@@ -0,0 +1,46 @@
+package oleg.sopilnyak.repository.impl;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class PoolSizerTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void boundsOfTarget() {
+        PoolSizer sizer = new PoolSizer(2, 10, 0, 0);
+
+        assertEquals(2, sizer.target(0, 0, 0, SECOND));
+        assertEquals(10, sizer.target(10, 20, 0, 2 * SECOND));
+    }
+
+    @Test
+    public void growInAdvance() {
+        PoolSizer sizer = new PoolSizer(1, 20, 0, 0);
+
+        // 8 instances in use, target has headroom
+        assertEquals(10, sizer.target(8, 0, 0, SECOND));
+        // callers are waiting
+        assertEquals(13, sizer.target(8, 1, 0, 2 * SECOND));
+        // average concurrency is 12 (instances were busy 12 seconds during second)
+        assertEquals(15, sizer.target(2, 0, 12 * SECOND, 3 * SECOND));
+    }
+
+    @Test
+    public void decayOfDemand() {
+        PoolSizer sizer = new PoolSizer(1, 20, 0, 0);
+        assertEquals(13, sizer.target(10, 0, 0, SECOND));
+
+        int target = sizer.target(0, 0, 0, 2 * SECOND);
+        assertEquals(10, target);
+        for (int i = 3; i < 30; i++) {
+            int next = sizer.target(0, 0, 0, i * SECOND);
+            assertEquals(true, next <= target);
+            target = next;
+        }
+        assertEquals(1, target);
+    }
+}
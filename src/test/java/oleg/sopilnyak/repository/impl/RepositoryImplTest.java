@@ -0,0 +1,102 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.builder.ServiceBuilder;
+import oleg.sopilnyak.exception.ServiceAlreadyRegisteredException;
+import oleg.sopilnyak.repository.ServiceImpl;
+import oleg.sopilnyak.repository.ServiceMeta;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RepositoryImplTest {
+    private final RepositoryImpl repository = new RepositoryImpl();
+
+    @After
+    public void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    public void registerAsync() throws Exception {
+        // instances are made only when the test lets it
+        CountDownLatch making = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        List<CompletableFuture<ServiceImpl>> services = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                services.add(repository.registerAsync(makeServiceMeta("facade-" + i), facade -> gatedFacade(making, running)));
+            }
+            // services are registered without waiting for instances
+            assertFalse(services.get(3).isDone());
+            assertNotNull(repository.getService("facade-3"));
+
+            // instances of services are made in parallel
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (running.get() < 4 && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+            assertEquals(4, running.get());
+        } finally {
+            making.countDown();
+        }
+
+        CompletableFuture.allOf(services.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+        assertSame(repository.getService("facade-0"), services.get(0).join());
+        assertEquals(2, ((ServiceInstancesPool) services.get(0).join()).getAvailable().size());
+    }
+
+    @Test
+    public void registerAsyncAfterShutdown() throws Exception {
+        repository.registerAsync(makeServiceMeta("facade-before"), facade -> slowFacade()).get(5, TimeUnit.SECONDS);
+        repository.shutdown();
+
+        ServiceImpl service = repository.registerAsync(makeServiceMeta("facade-after"), facade -> slowFacade()).get(5, TimeUnit.SECONDS);
+        assertEquals(2, ((ServiceInstancesPool) service).getAvailable().size());
+    }
+
+    @Test(expected = ServiceAlreadyRegisteredException.class)
+    public void registerTwice() throws Exception {
+        repository.registerAsync(makeServiceMeta("facade"), facade -> slowFacade());
+        repository.registerAsync(makeServiceMeta("facade"), facade -> slowFacade());
+    }
+
+    // private methods
+    private ServiceMeta makeServiceMeta(String id) {
+        ServiceBuilder builder = repository.serviceBuilder().interfaceClass(Facade.class).id(id);
+        builder.operations(builder.operationBuilder().name("echo").parameter(String.class).result(String.class).build());
+        return builder.build();
+    }
+
+    private static Facade gatedFacade(CountDownLatch making, AtomicInteger running) {
+        running.incrementAndGet();
+        try {
+            making.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        running.decrementAndGet();
+        return value -> value;
+    }
+
+    private static Facade slowFacade() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value -> value;
+    }
+
+    // inner classes
+    public interface Facade {
+        String echo(String value);
+    }
+}
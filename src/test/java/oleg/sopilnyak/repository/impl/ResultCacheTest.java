@@ -0,0 +1,95 @@
+package oleg.sopilnyak.repository.impl;
+
+import oleg.sopilnyak.metrics.CacheSnapshot;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ResultCacheTest {
+    private static final long TTL = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    public void getAndPut() {
+        ResultCache cache = new ResultCache(10, 1024 * 1024);
+        CallKey key = key("Actinium");
+        assertSame(ResultCache.MISS, cache.get(key));
+
+        cache.put(key, "227", TTL);
+        assertEquals("227", cache.get(key("Actinium")));
+        cache.put(key("void"), null, TTL);
+        assertNull(cache.get(key("void")));
+        assertSame(ResultCache.MISS, cache.get(new CallKey("other", new Object[]{"Actinium"})));
+
+        CacheSnapshot snapshot = cache.snapshot();
+        assertEquals(2, snapshot.getHits());
+        assertEquals(2, snapshot.getMisses());
+        assertEquals(2, snapshot.getEntries());
+        assertTrue(snapshot.getBytes() > 0);
+        assertEquals(0.5, snapshot.getHitRate(), 0.0);
+    }
+
+    @Test
+    public void expiration() throws Exception {
+        ResultCache cache = new ResultCache(10, 1024 * 1024);
+        cache.put(key("Actinium"), "227", TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals("227", cache.get(key("Actinium")));
+
+        TimeUnit.MILLISECONDS.sleep(250);
+        assertSame(ResultCache.MISS, cache.get(key("Actinium")));
+        assertEquals(1, cache.snapshot().getExpirations());
+        assertEquals(0, cache.snapshot().getEntries());
+        assertEquals(0, cache.snapshot().getBytes());
+    }
+
+    @Test
+    public void segmentedEviction() {
+        ResultCache cache = new ResultCache(5, 1024 * 1024);
+        for (int i = 0; i < 5; i++) {
+            cache.put(key(i), "value-" + i, TTL);
+        }
+        // used results are protected
+        assertEquals("value-0", cache.get(key(0)));
+        assertEquals("value-1", cache.get(key(1)));
+
+        // scan of results which are used once washes out the probation only
+        for (int i = 5; i < 20; i++) {
+            cache.put(key(i), "value-" + i, TTL);
+        }
+        assertEquals("value-0", cache.get(key(0)));
+        assertEquals("value-1", cache.get(key(1)));
+        assertSame(ResultCache.MISS, cache.get(key(2)));
+        assertEquals("value-19", cache.get(key(19)));
+        assertEquals(5, cache.snapshot().getEntries());
+        assertEquals(15, cache.snapshot().getEvictions());
+    }
+
+    @Test
+    public void bytesBound() {
+        ResultCache cache = new ResultCache(1000, 2048);
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            large.append('x');
+        }
+        for (int i = 0; i < 10; i++) {
+            cache.put(key(i), large.toString() + i, TTL);
+        }
+        assertTrue(cache.snapshot().getBytes() <= 2048);
+        assertTrue(cache.snapshot().getEntries() < 10);
+        assertEquals("x", ((String) cache.get(key(9))).substring(0, 1));
+
+        // result larger than cache isn't cached
+        cache.put(key("huge"), new byte[4096], TTL);
+        assertSame(ResultCache.MISS, cache.get(key("huge")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongLimits() {
+        new ResultCache(0, 1024);
+    }
+
+    private static CallKey key(Object parameter) {
+        return new CallKey("getAtomicWeight", new Object[]{parameter});
+    }
+}
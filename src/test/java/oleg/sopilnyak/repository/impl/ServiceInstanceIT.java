@@ -2,9 +2,12 @@ package oleg.sopilnyak.repository.impl;
 
 import net.webservicex.Periodictable;
 import net.webservicex.PeriodictableSoap;
+import oleg.sopilnyak.standin.PeriodictableStandIn;
 import oleg.sopilnyak.util.AtomElementService;
 import org.jdom2.JDOMException;
 import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
@@ -15,7 +18,8 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 /**
- * Test case for integration test
+ * Test case for integration test,<BR/>
+ * test interacts with local stand-in of http://www.webservicex.net/periodictable.asmx
  */
 public class ServiceInstanceIT {
 
@@ -25,7 +29,18 @@ public class ServiceInstanceIT {
 //        System.setProperty("com.sun.xml.ws.transport.http.HttpAdapter.dump", "true");
 //        System.setProperty("com.sun.xml.internal.ws.transport.http.HttpAdapter.dump", "true");
 //    }
-    private final static PeriodictableSoap service = new Periodictable().getPeriodictableSoap();
+    private final static PeriodictableStandIn standIn = new PeriodictableStandIn();
+    private static PeriodictableSoap service;
+
+    @BeforeClass
+    public static void startStandIn() throws Exception {
+        service = new Periodictable(standIn.start().getWsdlLocation()).getPeriodictableSoap();
+    }
+
+    @AfterClass
+    public static void stopStandIn() {
+        standIn.stop();
+    }
 
     @After
     public void tearDown() throws Exception {
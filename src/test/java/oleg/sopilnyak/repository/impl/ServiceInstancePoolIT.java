@@ -4,13 +4,18 @@ import net.webservicex.Periodictable;
 import net.webservicex.PeriodictableSoap;
 import oleg.sopilnyak.builder.OperationBuilder;
 import oleg.sopilnyak.builder.ServiceBuilder;
+import oleg.sopilnyak.builder.impl.JaxWsInstanceBuilder;
 import oleg.sopilnyak.builder.impl.ServiceBuilderImpl;
 import oleg.sopilnyak.call.Call;
 import oleg.sopilnyak.repository.ServiceMeta;
+import oleg.sopilnyak.standin.Latency;
+import oleg.sopilnyak.standin.PeriodictableStandIn;
 import oleg.sopilnyak.util.AtomElementService;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -23,7 +28,7 @@ import static org.junit.Assert.assertEquals;
 
 /**
  * Integration test for services pool of SOAP web-service,<BR/>
- * test interacts with http://www.webservicex.net/periodictable.asmx
+ * test interacts with local stand-in of http://www.webservicex.net/periodictable.asmx
  */
 public class ServiceInstancePoolIT {
     private ServiceInstancesPool pool;
@@ -34,14 +39,26 @@ public class ServiceInstancePoolIT {
 //        System.setProperty("com.sun.xml.internal.ws.transport.http.HttpAdapter.dump", "true");
 //    }
 
+    // stand-in of remote service with long tail latency
+    private final PeriodictableStandIn standIn = new PeriodictableStandIn().latency(Latency.logNormal(20, 0.5));
+
     @Before
     public void setUp() throws Exception {
         ServiceMeta meta = makeWebServiceMeta();
-        pool = new ServiceInstancesPool(meta, (clazz) -> new Periodictable().getPeriodictableSoap());
+        URL wsdlLocation = standIn.start().getWsdlLocation();
+        pool = new ServiceInstancesPool(meta, JaxWsInstanceBuilder.of(Periodictable.class).wsdlLocation(wsdlLocation));
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+        standIn.stop();
     }
 
     @Test
     public void soapServiceParallelCalls() throws Exception {
+        // local stand-in does not need delay between remote calls
+        pool.setExclusiveDelayValue(0);
         pool.start();
 
         Call getAtoms = pool.getOperationCall("getAtoms");
@@ -1,27 +1,69 @@
 package oleg.sopilnyak.repository.impl;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
 import oleg.sopilnyak.builder.OperationBuilder;
 import oleg.sopilnyak.builder.ServiceBuilder;
 import oleg.sopilnyak.builder.impl.ServiceBuilderImpl;
 import oleg.sopilnyak.call.Call;
+import oleg.sopilnyak.call.CallListener;
+import oleg.sopilnyak.exception.BulkheadFullException;
+import oleg.sopilnyak.circuit.CircuitBreaker;
+import oleg.sopilnyak.exception.CallTimeoutException;
+import oleg.sopilnyak.exception.CircuitBreakerOpenException;
+import oleg.sopilnyak.exception.InstanceAcquireTimeoutException;
+import oleg.sopilnyak.exception.OperationNotFoundException;
+import oleg.sopilnyak.exception.OperationParameterTypeIsInvalidException;
+import oleg.sopilnyak.exception.RateLimitExceededException;
 import oleg.sopilnyak.exception.ServiceCallException;
+import oleg.sopilnyak.exception.ServiceExecutionException;
+import oleg.sopilnyak.metrics.LatencySnapshot;
+import oleg.sopilnyak.metrics.ServiceMetrics;
+import oleg.sopilnyak.repository.ServiceImpl;
 import oleg.sopilnyak.repository.ServiceMeta;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.slf4j.LoggerFactory;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
 public class ServiceInstancesPoolTest {
 
+    // gate of call which cannot be interrupted
+    private static volatile CountDownLatch gate = new CountDownLatch(0);
     private ServiceInstancesPool pool;
 
     private static Object apply(Object facade) {
@@ -34,6 +76,12 @@ public class ServiceInstancesPoolTest {
         pool = new ServiceInstancesPool(meta, ServiceInstancesPoolTest::apply);
     }
 
+    @After
+    public void tearDown() {
+        // executors and maintenance threads of pool don't leak to other tests
+        pool.shutdown();
+    }
+
     @Test
     public void start() throws Exception {
         assertEquals(false,         pool.isActive());
@@ -63,6 +111,17 @@ public class ServiceInstancesPoolTest {
 
     }
 
+    @Test
+    public void shutdownClosesInstanceBuilder() throws Exception {
+        AtomicInteger closed = new AtomicInteger();
+        pool = new ServiceInstancesPool(makeServiceMeta(), new ClosableBuilder(closed));
+        pool.start();
+        assertEquals(0, closed.get());
+
+        pool.shutdown();
+        assertEquals(1, closed.get());
+    }
+
     @Test
     public void simpleServiceSequentialCalls() throws Exception {
         pool.start();
@@ -84,8 +143,725 @@ public class ServiceInstancesPoolTest {
         }
     }
 
+    @Test
+    public void sharedCalls() throws Exception {
+        assertSame(pool.getOperationCall("method1"), pool.getOperationCall("method1"));
+        assertSame(pool.getCallOperationList(), pool.getCallOperationList());
+        assertEquals(2, pool.getCallOperationList().size());
+        assertTrue(pool.getCallOperationList().contains(pool.getOperationCall("method2")));
+        assertArrayEquals(pool.getCallOperationList().toArray(), pool.getCallOperations());
+        assertNotSame(pool.getCallOperations(), pool.getCallOperations());
+        try {
+            pool.getCallOperationList().clear();
+            fail("Calls should be immutable");
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    @Test
+    public void callListener() throws Exception {
+        List<String> events = new ArrayList<>();
+        pool.setExclusiveDelayValue(0);
+        pool.setCallListener(new CallListener() {
+            @Override
+            public void callStarted(String serviceId, String operationName) {
+                events.add("started " + operationName);
+            }
+
+            @Override
+            public void callFinished(String serviceId, String operationName, long waitNanos, long executionNanos) {
+                assertTrue(executionNanos >= TimeUnit.MILLISECONDS.toNanos(100));
+                events.add("finished " + operationName);
+            }
+
+            @Override
+            public void callFailed(String serviceId, String operationName, long waitNanos, long executionNanos, Throwable error) {
+                assertEquals(0L, executionNanos);
+                events.add("failed " + operationName);
+            }
+        });
+        pool.start();
+
+        Call<Double, Object> method2 = operationCall("method2");
+        assertEquals(Double.valueOf(1), method2.invoke1(1));
+        try {
+            method2.invoke1("wrong");
+            fail("Call should fail");
+        } catch (ServiceCallException e) {
+        }
+
+        assertEquals(Arrays.asList("started method2", "finished method2", "started method2", "failed method2"), events);
+    }
+
+    @Test
+    public void metrics() throws Exception {
+        pool.setExclusiveDelayValue(0);
+        pool.start();
+
+        Call<Double, Object> method2 = operationCall("method2");
+        method2.invoke1(1);
+        method2.invoke1(2);
+        try {
+            method2.invoke1("wrong");
+            fail("Call should fail");
+        } catch (ServiceCallException e) {
+        }
+
+        ServiceMetrics metrics = pool.getMetrics();
+        assertEquals(2, metrics.getAvailableInstances());
+        assertEquals(0, metrics.getInUseInstances());
+        assertEquals(2, metrics.getCheckoutWait().getCount());
+        assertEquals(2, metrics.getInstanceCreation().getCount());
+        LatencySnapshot latency = metrics.getOperationLatency().get("method2");
+        assertEquals(2, latency.getCount());
+        assertTrue(latency.getP50() >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(0, metrics.getOperationLatency().get("method1").getCount());
+        assertEquals(Long.valueOf(1), metrics.getErrorCounts().get(OperationParameterTypeIsInvalidException.class.getName()));
+
+        ObjectName name = new ObjectName("oleg.sopilnyak:type=ServiceInstancesPool,name=" + ObjectName.quote(metrics.getServiceId()));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(2, server.getAttribute(name, "AvailableInstances"));
+        assertEquals(2L, ((CompositeData) server.getAttribute(name, "CheckoutWait")).get("count"));
+        assertEquals(0L, ((CompositeData) server.getAttribute(name, "ResultCache")).get("hits"));
+        pool.shutdown();
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void adaptiveSizing() throws Exception {
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(1);
+        pool.setMaximumInstances(10);
+        pool.setAdaptiveSizing(true);
+        pool.setSizingIntervalValue(50);
+        pool.setIdleTimeoutValue(200);
+        pool.start();
+        assertEquals(1, pool.getAvailable().size());
+
+        Call<Double, Integer> method2 = operationCall("method2");
+        for (int i = 0; i < 5; i++) {
+            List<CompletableFuture<Double>> futures = new ArrayList<>();
+            for (int j = 0; j < 6; j++) {
+                futures.add(method2.invokeAsync(j));
+            }
+            futures.forEach(CompletableFuture::join);
+        }
+        // instances are made in advance with headroom over the demand
+        assertTrue(pool.getAvailable().size() > 6);
+
+        // demand is gone, idle instances are thrown away
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pool.getAvailable().size() > 1 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        assertEquals(1, pool.getAvailable().size());
+        assertEquals(Double.valueOf(1), method2.invoke1(1));
+        pool.shutdown();
+    }
+
+    @Test
+    public void spareInstances() throws Exception {
+        // instances after the first three are made only when the test lets it
+        CountDownLatch making = new CountDownLatch(1);
+        AtomicInteger made = new AtomicInteger();
+        pool = new ServiceInstancesPool(makeServiceMeta(), facade -> {
+            if (made.incrementAndGet() > 3) {
+                try {
+                    making.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new ServiceFacadeImpl();
+        });
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(1);
+        pool.setSpareInstances(3);
+        try {
+            pool.start();
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (pool.getAvailable().size() < 3 && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+            assertEquals(3, pool.getAvailable().size());
+
+            // callers take ready instances and don't wait for instance making
+            Call<Double, Integer> method2 = operationCall("method2");
+            List<CompletableFuture<Double>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(method2.invokeAsync(i));
+            }
+            for (CompletableFuture<Double> future : futures) {
+                future.get(2, TimeUnit.SECONDS);
+            }
+        } finally {
+            making.countDown();
+        }
+
+        // spare instances were made in background while instances were busy
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pool.getAvailable().size() <= 3 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertTrue(pool.getAvailable().size() > 3);
+        pool.shutdown();
+    }
+
+    @Test
+    public void startAsync() throws Exception {
+        // instances are made only when the test lets it
+        CountDownLatch making = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        pool = new ServiceInstancesPool(makeServiceMeta(), facade -> {
+            running.incrementAndGet();
+            try {
+                making.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ServiceFacadeImpl();
+        });
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(4);
+        pool.setStartupParallelism(4);
+
+        CompletableFuture<ServiceImpl> readiness;
+        try {
+            readiness = pool.startAsync();
+            assertTrue(pool.isActive());
+            assertFalse(readiness.isDone());
+
+            // instances are made in parallel
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (running.get() < 4 && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+            assertEquals(4, running.get());
+        } finally {
+            making.countDown();
+        }
+
+        assertSame(pool, readiness.get(5, TimeUnit.SECONDS));
+        assertEquals(4, pool.getAvailable().size());
+        assertSame(readiness, pool.startAsync());
+        pool.shutdown();
+    }
+
+    @Test
+    public void startAsyncRejected() throws Exception {
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(2);
+        ExecutorService stopped = Executors.newSingleThreadExecutor();
+        stopped.shutdown();
+
+        CompletableFuture<ServiceImpl> readiness = pool.startAsync(stopped);
+        assertTrue(readiness.isCompletedExceptionally());
+        assertFalse(pool.isActive());
+
+        // next start is made from scratch
+        CompletableFuture<ServiceImpl> restarted = pool.startAsync();
+        assertNotSame(readiness, restarted);
+        assertSame(pool, restarted.get(5, TimeUnit.SECONDS));
+        assertEquals(2, pool.getAvailable().size());
+    }
+
+    @Test
+    public void brokenInstanceReplacement() throws Exception {
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(2);
+        pool.start();
+        Object broken = pool.getAvailable().iterator().next();
+
+        // application failure keeps the instance
+        Call<Double, Integer> method2 = operationCall("method2");
+        try {
+            method2.invoke1(-2);
+            fail("Call should fail");
+        } catch (ServiceExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        assertEquals(2, pool.getAvailable().size());
+        assertEquals(0, pool.getMetrics().getDiscardedCount());
+
+        // transport failure throws the instance away, replacement is made in background
+        int attempts = 0;
+        while (pool.getAvailable().contains(broken) && attempts++ < 10) {
+            try {
+                method2.invoke1(-1);
+                fail("Call should fail");
+            } catch (ServiceExecutionException e) {
+                assertTrue(e.getCause() instanceof UncheckedIOException);
+            }
+        }
+        assertFalse(pool.getAvailable().contains(broken));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pool.getAvailable().size() < 2 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertEquals(2, pool.getAvailable().size());
+        assertEquals(attempts, pool.getMetrics().getDiscardedCount());
+        assertEquals(Double.valueOf(1), method2.invoke1(1));
+        pool.shutdown();
+    }
+
+    @Test
+    public void interruptedCallKeepsInstance() throws Exception {
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(1);
+        pool.setMaximumInstances(1);
+        pool.setAsyncCallTimeoutValue(50);
+        pool.start();
+        Object instance = pool.getAvailable().iterator().next();
+
+        Call<Double, Integer> method2 = operationCall("method2");
+        try {
+            method2.invokeAsync(-4).get();
+            fail("Call should be timed out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CallTimeoutException);
+        }
+        // waits for the instance released by interrupted call
+        assertEquals(Double.valueOf(1), method2.invoke1(1));
+        assertEquals(0, pool.getMetrics().getDiscardedCount());
+        assertTrue(pool.getAvailable().contains(instance));
+    }
+
+    @Test
+    public void instanceValidation() throws Exception {
+        Set<Object> broken = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(2);
+        pool.setInstanceValidator(instance -> !broken.contains(instance));
+        pool.setValidateOnBorrow(true);
+        pool.setValidationIntervalValue(50);
+        pool.start();
+
+        // broken instances are not given to caller
+        List<Object> started = new ArrayList<>();
+        for (Object instance : pool.getAvailable()) {
+            started.add(instance);
+        }
+        broken.addAll(started);
+        Call<Double, Integer> method2 = operationCall("method2");
+        assertEquals(Double.valueOf(2), method2.invoke1(2));
+        started.forEach(instance -> assertFalse(pool.getAvailable().contains(instance)));
+
+        // broken idle instance is found by background check
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pool.getAvailable().size() < 2 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        Object idle = pool.getAvailable().iterator().next();
+        broken.add(idle);
+        deadline = System.currentTimeMillis() + 5_000;
+        while (pool.getAvailable().contains(idle) && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertFalse(pool.getAvailable().contains(idle));
+        assertEquals(3, pool.getMetrics().getDiscardedCount());
+        pool.shutdown();
+    }
+
+    @Test
+    public void circuitBreaker() throws Exception {
+        pool.setExclusiveDelayValue(0);
+        pool.setCircuitBreaker(new CircuitBreaker.Settings().windowSize(4).minimumCalls(4).openDurationValue(300).halfOpenCalls(1));
+        pool.start();
+
+        Call<Double, Integer> method2 = operationCall("method2");
+        for (int i = 0; i < 4; i++) {
+            try {
+                method2.invoke1(-2);
+                fail("Call should fail");
+            } catch (ServiceExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalArgumentException);
+            }
+        }
+        assertEquals(CircuitBreaker.State.OPEN, pool.getCircuitState("method2"));
+
+        // calls fail fast without taking the instance
+        long checkouts = pool.getMetrics().getCheckoutWait().getCount();
+        long executions = pool.getMetrics().getOperationLatency().get("method2").getCount();
+        try {
+            method2.invoke1(1);
+            fail("Call should be rejected");
+        } catch (CircuitBreakerOpenException e) {
+            assertEquals("method2", e.getOperationName());
+        }
+        assertEquals(checkouts, pool.getMetrics().getCheckoutWait().getCount());
+        assertEquals(executions, pool.getMetrics().getOperationLatency().get("method2").getCount());
+        assertEquals(1L, pool.getMetrics().getErrorCounts().get(CircuitBreakerOpenException.class.getName()).longValue());
+
+        // other operation is not affected
+        assertEquals(CircuitBreaker.State.CLOSED, pool.getCircuitState("method1"));
+        assertNull(pool.getOperationCall("method1").invoke0());
+
+        // probe call closes the circuit
+        TimeUnit.MILLISECONDS.sleep(350);
+        assertEquals(Double.valueOf(1), method2.invoke1(1));
+        assertEquals(CircuitBreaker.State.CLOSED, pool.getCircuitState("method2"));
+        pool.shutdown();
+    }
+
+    @Test
+    public void circuitProbeReleasedOnError() throws Exception {
+        AtomicBoolean broken = new AtomicBoolean();
+        pool = new ServiceInstancesPool(makeServiceMeta(), facade -> {
+            if (broken.get()) {
+                throw new ExceptionInInitializerError("Cannot initialize facade");
+            }
+            return new ServiceFacadeImpl();
+        });
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(1);
+        pool.setMaximumInstances(2);
+        pool.setCircuitBreaker(new CircuitBreaker.Settings().windowSize(4).minimumCalls(4).openDurationValue(200).halfOpenCalls(2));
+        pool.start();
+
+        Call<Double, Integer> method2 = operationCall("method2");
+        for (int i = 0; i < 4; i++) {
+            try {
+                method2.invoke1(-2);
+                fail("Call should fail");
+            } catch (ServiceExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalArgumentException);
+            }
+        }
+        assertEquals(CircuitBreaker.State.OPEN, pool.getCircuitState("method2"));
+        TimeUnit.MILLISECONDS.sleep(250);
+
+        // the first probe holds the instance, the second one fails to make new instance
+        broken.set(true);
+        CompletableFuture<Double> probe;
+        gate = new CountDownLatch(1);
+        try {
+            probe = method2.invokeAsync(-3);
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (pool.getInAction().isEmpty() && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+            assertEquals(1, pool.getInAction().size());
+            try {
+                method2.invoke1(1);
+                fail("Call should fail");
+            } catch (ExceptionInInitializerError e) {
+                assertEquals("Cannot initialize facade", e.getMessage());
+            }
+        } finally {
+            gate.countDown();
+        }
+        assertEquals(Double.valueOf(-3), probe.get(5, TimeUnit.SECONDS));
+
+        // not made probe call is given back
+        broken.set(false);
+        assertEquals(Double.valueOf(1), method2.invoke1(1));
+        assertEquals(CircuitBreaker.State.CLOSED, pool.getCircuitState("method2"));
+        pool.shutdown();
+    }
+
+    @Test
+    public void operationBulkhead() throws Exception {
+        ServiceBuilder builder = new ServiceBuilderImpl();
+        builder.interfaceClass(ServiceFacade.class).id("TestFacade");
+        OperationBuilder oBuilder = builder.operationBuilder();
+        ServiceMeta.Operation oper0 = oBuilder.name("method1").result(Void.class).build();
+        ServiceMeta.Operation oper2 = oBuilder.name("method2").parameter(Integer.class).result(Double.class)
+                .maxConcurrentCalls(2).maxWaitingCalls(1).build();
+        pool = new ServiceInstancesPool(builder.operations(oper0, oper2).build(), ServiceInstancesPoolTest::apply);
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(4);
+        pool.setMaximumInstances(4);
+        pool.start();
+
+        Call<Double, Integer> method2 = operationCall("method2");
+        List<CompletableFuture<Double>> futures = new ArrayList<>();
+        gate = new CountDownLatch(1);
+        try {
+            // running calls hold their places until the gate is opened
+            for (int i = 0; i < 2; i++) {
+                futures.add(method2.invokeAsync(-3));
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (pool.getInAction().size() < 2 && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+            assertEquals(2, pool.getInAction().size());
+
+            // one call waits for the place, no place for one more call of heavy operation
+            List<CompletableFuture<Double>> extra = new ArrayList<>();
+            for (int i = 2; i < 4; i++) {
+                extra.add(method2.invokeAsync(i));
+            }
+            try {
+                CompletableFuture.anyOf(extra.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+                fail("Call should be rejected");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof BulkheadFullException);
+                assertEquals("method2", ((BulkheadFullException) e.getCause()).getOperationName());
+            }
+            extra.removeIf(CompletableFuture::isDone);
+            assertEquals(1, extra.size());
+            futures.addAll(extra);
+
+            // other operation has own instances, it doesn't wait for the heavy one
+            assertNull(pool.getOperationCall("method1").invoke0());
+            assertEquals(0L, pool.getMetrics().getExhaustedCount());
+        } finally {
+            gate.countDown();
+        }
+
+        for (CompletableFuture<Double> future : futures) {
+            assertNotNull(future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(4, pool.getAvailable().size());
+        pool.shutdown();
+    }
+
+    @Test
+    public void bulkheadReleasedOnError() throws Exception {
+        ServiceBuilder builder = new ServiceBuilderImpl();
+        builder.interfaceClass(ServiceFacade.class).id("TestFacade");
+        OperationBuilder oBuilder = builder.operationBuilder();
+        ServiceMeta.Operation oper0 = oBuilder.name("method1").result(Void.class).build();
+        ServiceMeta.Operation oper2 = oBuilder.name("method2").parameter(Integer.class).result(Double.class)
+                .maxConcurrentCalls(2).maxWaitingCalls(0).build();
+        AtomicBoolean broken = new AtomicBoolean();
+        pool = new ServiceInstancesPool(builder.operations(oper0, oper2).build(), facade -> {
+            if (broken.get()) {
+                throw new ExceptionInInitializerError("Cannot initialize facade");
+            }
+            return new ServiceFacadeImpl();
+        });
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(1);
+        pool.setMaximumInstances(2);
+        pool.start();
+
+        Call<Double, Integer> method2 = operationCall("method2");
+        gate = new CountDownLatch(1);
+        try {
+            // the first call holds the instance, the second one fails to make new instance
+            broken.set(true);
+            CompletableFuture<Double> running = method2.invokeAsync(-3);
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (pool.getInAction().isEmpty() && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+            assertEquals(1, pool.getInAction().size());
+            try {
+                method2.invoke1(1);
+                fail("Call should fail");
+            } catch (ExceptionInInitializerError e) {
+                assertEquals("Cannot initialize facade", e.getMessage());
+            }
+
+            // place of failed call is given back
+            broken.set(false);
+            assertEquals(Double.valueOf(1), method2.invoke1(1));
+            gate.countDown();
+            assertEquals(Double.valueOf(-3), running.get(5, TimeUnit.SECONDS));
+        } finally {
+            gate.countDown();
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void coalescedCalls() throws Exception {
+        ServiceBuilder builder = new ServiceBuilderImpl();
+        builder.interfaceClass(ServiceFacade.class).id("TestFacade");
+        OperationBuilder oBuilder = builder.operationBuilder();
+        ServiceMeta.Operation oper0 = oBuilder.name("method1").result(Void.class).build();
+        ServiceMeta.Operation oper2 = oBuilder.name("method2").parameter(Integer.class).result(Double.class).coalesced(true).build();
+        pool = new ServiceInstancesPool(builder.operations(oper0, oper2).build(), ServiceInstancesPoolTest::apply);
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(1);
+        pool.start();
+
+        // equal concurrent calls share one execution
+        Call<Double, Integer> method2 = operationCall("method2");
+        List<CompletableFuture<Double>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(method2.invokeAsync(5));
+        }
+        futures.add(method2.invokeAsync(6));
+        for (int i = 0; i < 8; i++) {
+            assertEquals(Double.valueOf(5), futures.get(i).get());
+        }
+        assertEquals(Double.valueOf(6), futures.get(8).get());
+        ServiceMetrics metrics = pool.getMetrics();
+        assertTrue(metrics.getCoalescedCount() > 0);
+        assertEquals(9, metrics.getCoalescedCount() + metrics.getOperationLatency().get("method2").getCount());
+
+        // the exception is shared as well
+        futures.clear();
+        for (int i = 0; i < 4; i++) {
+            futures.add(method2.invokeAsync(-2));
+        }
+        for (CompletableFuture<Double> future : futures) {
+            try {
+                future.get();
+                fail("Call should fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof ServiceExecutionException);
+            }
+        }
+        // finished call isn't shared
+        long executed = metrics.getOperationLatency().get("method2").getCount();
+        assertEquals(Double.valueOf(5), method2.invoke1(5));
+        assertEquals(executed + 1, metrics.getOperationLatency().get("method2").getCount());
+        pool.shutdown();
+    }
+
+    @Test
+    public void cachedResults() throws Exception {
+        ServiceBuilder builder = new ServiceBuilderImpl();
+        builder.interfaceClass(ServiceFacade.class).id("TestFacade");
+        OperationBuilder oBuilder = builder.operationBuilder();
+        ServiceMeta.Operation oper0 = oBuilder.name("method1").result(Void.class).build();
+        ServiceMeta.Operation oper2 = oBuilder.name("method2").parameter(Integer.class).result(Double.class).cacheTtlValue(1_000).build();
+        pool = new ServiceInstancesPool(builder.operations(oper0, oper2).build(), ServiceInstancesPoolTest::apply);
+        pool.setMinimumInstances(1);
+        pool.start();
+
+        Call<Double, Integer> method2 = operationCall("method2");
+        assertEquals(Double.valueOf(3), method2.invoke1(3));
+        // repeated call doesn't wait for instance and exclusive delay
+        ServiceMetrics metrics = pool.getMetrics();
+        long checkouts = metrics.getCheckoutWait().getCount();
+        assertEquals(Double.valueOf(3), method2.invoke1(3));
+        assertEquals(Double.valueOf(3), method2.invokeAsync(3).get());
+        assertEquals(checkouts, metrics.getCheckoutWait().getCount());
+
+        assertEquals(1, metrics.getOperationLatency().get("method2").getCount());
+        assertEquals(2, metrics.getResultCache().getHits());
+        assertEquals(1, metrics.getResultCache().getMisses());
+
+        // failures aren't cached
+        for (int i = 0; i < 2; i++) {
+            try {
+                method2.invoke1(-2);
+                fail("Call should fail");
+            } catch (ServiceExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalArgumentException);
+            }
+        }
+        assertEquals(3, metrics.getOperationLatency().get("method2").getCount());
+
+        // out of date result is requested again
+        TimeUnit.MILLISECONDS.sleep(1_100);
+        assertEquals(Double.valueOf(3), method2.invoke1(3));
+        assertEquals(4, metrics.getOperationLatency().get("method2").getCount());
+        assertEquals(1, metrics.getResultCache().getExpirations());
+        assertTrue(metrics.getResultCache().getEntries() > 0);
+        pool.shutdown();
+        // stopped pool doesn't keep results
+        assertEquals(0, metrics.getResultCache().getEntries());
+        assertEquals(0L, metrics.getResultCache().getBytes());
+    }
+
+    @Test
+    public void materializedResult() throws Exception {
+        ServiceBuilder builder = new ServiceBuilderImpl();
+        builder.interfaceClass(ServiceFacade.class).id("TestFacade");
+        OperationBuilder oBuilder = builder.operationBuilder();
+        ServiceMeta.Operation oper0 = oBuilder.name("method1").result(Void.class).refreshIntervalValue(200).build();
+        ServiceMeta.Operation oper2 = oBuilder.name("method2").parameter(Integer.class).result(Double.class).refreshIntervalValue(0).build();
+        pool = new ServiceInstancesPool(builder.operations(oper0, oper2).build(), ServiceInstancesPoolTest::apply);
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(2);
+        pool.start();
+
+        // the first result is made in background after start
+        ServiceMetrics metrics = pool.getMetrics();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (metrics.getOperationLatency().get("method1").getCount() == 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+
+        // callers get the latest result without remote call
+        Call<Object, Object> method1 = operationCall("method1");
+        long made = metrics.getOperationLatency().get("method1").getCount();
+        for (int i = 0; i < 10; i++) {
+            assertNull(method1.invoke0());
+        }
+        // only background refresh might call the service meanwhile
+        assertTrue(metrics.getOperationLatency().get("method1").getCount() < made + 10);
+
+        // the result is refreshed by schedule
+        long refreshed = metrics.getOperationLatency().get("method1").getCount();
+        long started = System.nanoTime();
+        deadline = System.currentTimeMillis() + 5_000;
+        while (metrics.getOperationLatency().get("method1").getCount() <= refreshed && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        TimeUnit.MILLISECONDS.sleep(200);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        long refreshes = metrics.getOperationLatency().get("method1").getCount() - refreshed;
+        assertTrue(refreshes > 0);
+        // refreshes follow each other with the interval, not continuously
+        assertTrue(refreshes <= elapsed / 200 + 1);
+        // refresh uses the instances of pool
+        assertEquals(2, pool.getAvailable().size() + pool.getInAction().size());
+        pool.shutdown();
+    }
+
+    @Test
+    public void materializedResultColdStart() throws Exception {
+        ServiceBuilder builder = new ServiceBuilderImpl();
+        builder.interfaceClass(ServiceFacade.class).id("TestFacade");
+        OperationBuilder oBuilder = builder.operationBuilder();
+        ServiceMeta.Operation oper0 = oBuilder.name("method1").result(Void.class).refreshIntervalValue(60_000).build();
+        ServiceMeta.Operation oper2 = oBuilder.name("method2").parameter(Integer.class).result(Double.class).refreshIntervalValue(0).build();
+        pool = new ServiceInstancesPool(builder.operations(oper0, oper2).build(), ServiceInstancesPoolTest::apply);
+        pool.setExclusiveDelayValue(0);
+        pool.setMinimumInstances(1);
+        pool.setMaximumInstances(10);
+        pool.start();
+
+        // callers which come before the first result share one remote call with background refresh
+        Call<Object, Object> method1 = operationCall("method1");
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return method1.invoke0();
+                    } catch (ServiceCallException e) {
+                        throw new CompletionException(e);
+                    }
+                }, callers));
+            }
+            for (CompletableFuture<Object> future : futures) {
+                assertNull(future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, pool.getMetrics().getOperationLatency().get("method1").getCount());
+    }
+
+    @Test
+    public void arityCalls() throws Exception {
+        pool.setExclusiveDelayValue(0);
+        pool.start();
+
+        Call<Double, Integer> method2 = operationCall("method2");
+        assertEquals(Double.valueOf(5), method2.invoke1(5));
+        assertEquals(Double.valueOf(6), method2.invoke2(6, "rejected"));
+        assertEquals(method2.invoke(7, 8, 9), method2.invoke1(7));
+
+        Call<String, String> method1 = operationCall("method1");
+        assertNull(method1.invoke0());
+        assertNull(method1.invoke1(""));
+    }
+
     @Test
     public void simpleServiceParallelCalls() throws Exception {
+        // without pacing every one of 10 threads needs own instance
+        pool.setExclusiveDelayValue(0);
         pool.start();
         ScheduledExecutorService executorService = new ScheduledThreadPoolExecutor(10);
         List<CompletableFuture> futures = new ArrayList<>(60);
@@ -133,6 +909,225 @@ public class ServiceInstancesPoolTest {
         assertEquals(10, pool.getAvailable().size());
     }
 
+    @Test(expected = InstanceAcquireTimeoutException.class)
+    public void exhaustedPoolAcquireTimeout() throws Exception {
+        pool.setMinimumInstances(1);
+        pool.setMaximumInstances(1);
+        pool.setExclusiveDelayValue(0);
+        pool.setAcquireTimeoutValue(10);
+        pool.start();
+
+        Call<Double, Integer> serviceCall = operationCall("method2");
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CompletableFuture<Void> busy = CompletableFuture.runAsync(() -> {
+            try {
+                serviceCall.invoke(1);
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        try {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (pool.getInAction().isEmpty() && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+            assertEquals(1, pool.getInAction().size());
+            serviceCall.invoke(2);
+        } finally {
+            busy.join();
+            assertNull(error.get());
+        }
+    }
+
+    @Test
+    public void exhaustedPoolFairCheckout() throws Exception {
+        pool.setMinimumInstances(1);
+        pool.setMaximumInstances(1);
+        pool.setExclusiveDelayValue(0);
+        pool.setFairCheckout(true);
+        pool.start();
+
+        Call<Double, Integer> serviceCall = operationCall("method2");
+        ScheduledExecutorService executorService = new ScheduledThreadPoolExecutor(3);
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        try {
+            long mark = System.currentTimeMillis();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        serviceCall.invoke(100);
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }, executorService));
+            }
+            futures.forEach(CompletableFuture::join);
+            assertEquals(Collections.emptyList(), errors);
+            // three sequential calls by 100 msec, polling of exhausted pool (by 500 msec) would take much longer
+            assertTrue(System.currentTimeMillis() - mark < 900);
+        } finally {
+            executorService.shutdown();
+        }
+        assertEquals(0, pool.getInAction().size());
+        assertEquals(1, pool.getAvailable().size());
+    }
+
+    @Test
+    public void operationRateLimit() throws Exception {
+        pool.setRateLimit(1000, 10);
+        pool.setOperationRateLimit("method2", 1, 1);
+        pool.setRateLimitBlocking(false);
+        pool.start();
+
+        Call<Double, Integer> limited = operationCall("method2");
+        Call<String, String> free = operationCall("method1");
+        assertEquals(Double.valueOf(1), limited.invoke(1));
+        free.invoke("Hi");
+        try {
+            limited.invoke(2);
+            fail("Rate limit should be exceeded");
+        } catch (RateLimitExceededException e) {
+            assertEquals("method2", e.getOperationName());
+        }
+        free.invoke("Bye");
+    }
+
+    @Test
+    public void asyncCalls() throws Exception {
+        pool.setMaximumInstances(3);
+        pool.setExclusiveDelayValue(0);
+        pool.start();
+
+        Call<Double, Integer> serviceCall = operationCall("method2");
+        List<CompletableFuture<Double>> futures = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            futures.add(serviceCall.invokeAsync(i));
+        }
+        for (int i = 0; i < 9; i++) {
+            assertEquals(Double.valueOf(i), futures.get(i).get());
+        }
+        assertEquals(0, pool.getInAction().size());
+        assertEquals(3, pool.getAvailable().size());
+    }
+
+    @Test
+    public void virtualThreadsAsyncCalls() throws Exception {
+        // warnings of executors factory are collected by the test
+        Logger executorsLog = (Logger) LoggerFactory.getLogger(CallExecutors.class);
+        Level level = executorsLog.getLevel();
+        ListAppender<ILoggingEvent> warnings = new ListAppender<>();
+        warnings.start();
+        executorsLog.addAppender(warnings);
+        executorsLog.setLevel(Level.WARN);
+        Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        try {
+            pool.setMaximumInstances(5);
+            pool.setExclusiveDelayValue(0);
+            pool.setExecutionMode(ExecutionMode.VIRTUAL_THREADS);
+            pool.setCallListener(new CallListener() {
+                @Override
+                public void callStarted(String serviceId, String operationName) {
+                    threads.add(Thread.currentThread());
+                }
+            });
+            pool.start();
+
+            Call<Double, Integer> serviceCall = operationCall("method2");
+            List<CompletableFuture<Double>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(serviceCall.invokeAsync(i));
+            }
+            for (int i = 0; i < 50; i++) {
+                assertEquals(Double.valueOf(i), futures.get(i).get());
+            }
+        } finally {
+            executorsLog.detachAppender(warnings);
+            executorsLog.setLevel(level);
+        }
+        assertEquals(0, pool.getInAction().size());
+        assertEquals(5, pool.getAvailable().size());
+
+        // calls are made by virtual threads if runtime supports them, otherwise by platform threads of the pool
+        assertFalse(threads.isEmpty());
+        boolean supported = supportsVirtualThreads();
+        for (Thread thread : threads) {
+            if (supported) {
+                assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+            } else {
+                assertTrue(thread.getName().startsWith("TestFacade-call-"));
+            }
+        }
+        List<String> messages = warnings.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+        assertEquals(supported ? 0 : 1, messages.stream().filter(message -> message.startsWith("Virtual threads are not supported")).count());
+    }
+
+    @Test
+    public void asyncCallsCancelAndTimeout() throws Exception {
+        pool.setMinimumInstances(1);
+        pool.setMaximumInstances(1);
+        pool.setExclusiveDelayValue(0);
+        pool.setAsyncCallTimeoutValue(50);
+        pool.start();
+
+        Call<Double, Integer> serviceCall = operationCall("method2");
+        CompletableFuture<Double> running = serviceCall.invokeAsync(1);
+        CompletableFuture<Double> pending = serviceCall.invokeAsync(2);
+        assertTrue(pending.cancel(true));
+        try {
+            running.get();
+            fail("Call should be timed out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CallTimeoutException);
+        }
+        // interrupted call released the instance
+        pool.setAsyncCallTimeoutValue(0);
+        assertEquals(Double.valueOf(3), serviceCall.invokeAsync(3).get());
+        assertEquals(0, pool.getInAction().size());
+        assertEquals(1, pool.getAvailable().size());
+    }
+
+    @Test
+    public void asyncCallsPermitHeldByBlockedCall() throws Exception {
+        pool.setMinimumInstances(1);
+        pool.setMaximumInstances(1);
+        pool.setExclusiveDelayValue(0);
+        pool.setAsyncCallTimeoutValue(50);
+        pool.setMaximumAsyncCalls(1);
+        pool.start();
+        gate = new CountDownLatch(1);
+        try {
+            Call<Double, Integer> serviceCall = operationCall("method2");
+            try {
+                serviceCall.invokeAsync(-3).get();
+                fail("Call should be timed out");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof CallTimeoutException);
+            }
+            // timed out call still occupies the thread
+            try {
+                serviceCall.invokeAsync(1).get();
+                fail("Call should be rejected");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause().getMessage().startsWith("Too many asynchronous calls"));
+            }
+        } finally {
+            gate.countDown();
+        }
+        Call<Double, Integer> serviceCall = operationCall("method2");
+        pool.setAsyncCallTimeoutValue(0);
+        Double result = null;
+        for (int i = 0; result == null && i < 500; i++) {
+            try {
+                result = serviceCall.invokeAsync(2).get();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause().getMessage().startsWith("Too many asynchronous calls"));
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+        }
+        assertEquals(Double.valueOf(2), result);
+    }
+
     @Test
     public void getMeta() {
         ServiceMeta meta1 = makeServiceMeta();
@@ -146,6 +1141,21 @@ public class ServiceInstancesPoolTest {
     }
 
     // private method
+    // pool gives raw entity of operation call
+    @SuppressWarnings("unchecked")
+    private <R, P> Call<R, P> operationCall(String name) throws OperationNotFoundException {
+        return pool.getOperationCall(name);
+    }
+
+    private static boolean supportsVirtualThreads() {
+        try {
+            Thread.class.getMethod("ofVirtual").invoke(null);
+            return true;
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
     private ServiceMeta makeServiceMeta(){
         ServiceBuilder builder = new ServiceBuilderImpl();
         builder.interfaceClass(ServiceFacade.class).id("TestFacade");
@@ -162,6 +1172,33 @@ public class ServiceInstancesPoolTest {
         String method1(String one) throws InterruptedException;
         Double method2(Integer i) throws InterruptedException;
     }
+    private static class ClosableBuilder implements Function<Object, Object>, AutoCloseable {
+        private final AtomicInteger closed;
+
+        private ClosableBuilder(AtomicInteger closed) {
+            this.closed = closed;
+        }
+
+        @Override
+        public Object apply(Object facade) {
+            return new ServiceFacadeImpl();
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException e) {
+                // ignored
+            }
+        }
+    }
     private static class ServiceFacadeImpl implements ServiceFacade{
 
         String method1_state = null;
@@ -180,7 +1217,26 @@ public class ServiceInstancesPoolTest {
 
         @Override
         public Double method2(Integer i) throws InterruptedException {
+            if (i == -3) {
+                // like blocked socket read, interruption doesn't stop it
+                awaitUninterruptibly(gate);
+                return i.doubleValue();
+            }
+            if (i == -4) {
+                // like socket read which is stopped by interruption
+                try {
+                    TimeUnit.SECONDS.sleep(10);
+                } catch (InterruptedException e) {
+                    throw new UncheckedIOException(new InterruptedIOException("Read interrupted"));
+                }
+            }
             TimeUnit.MILLISECONDS.sleep(100);
+            if (i == -1) {
+                throw new UncheckedIOException(new IOException("Connection reset"));
+            }
+            if (i < 0) {
+                throw new IllegalArgumentException("Wrong parameter " + i);
+            }
             return i.doubleValue();
         }
     }
@@ -0,0 +1,70 @@
+package oleg.sopilnyak.standin;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Canned data of Periodical SOAP Service
+ */
+final class Elements {
+    // name:symbol:atomic-weight in order of atomic number
+    private static final String TABLE = "Hydrogen:H:1.00794;Helium:He:4.002602;Lithium:Li:6.941;Beryllium:Be:9.012182;Boron:B:10.811;"
+            + "Carbon:C:12.0107;Nitrogen:N:14.0067;Oxygen:O:15.9994;Fluorine:F:18.9984032;Neon:Ne:20.1797;"
+            + "Sodium:Na:22.98977;Magnesium:Mg:24.305;Aluminium:Al:26.981538;Silicon:Si:28.0855;Phosphorus:P:30.973761;"
+            + "Sulfur:S:32.065;Chlorine:Cl:35.453;Argon:Ar:39.948;Potassium:K:39.0983;Calcium:Ca:40.078;"
+            + "Scandium:Sc:44.95591;Titanium:Ti:47.867;Vanadium:V:50.9415;Chromium:Cr:51.9961;Manganese:Mn:54.938049;"
+            + "Iron:Fe:55.845;Cobalt:Co:58.9332;Nickel:Ni:58.6934;Copper:Cu:63.546;Zinc:Zn:65.409;"
+            + "Gallium:Ga:69.723;Germanium:Ge:72.64;Arsenic:As:74.9216;Selenium:Se:78.96;Bromine:Br:79.904;"
+            + "Krypton:Kr:83.798;Rubidium:Rb:85.4678;Strontium:Sr:87.62;Yttrium:Y:88.90585;Zirconium:Zr:91.224;"
+            + "Niobium:Nb:92.90638;Molybdenum:Mo:95.94;Technetium:Tc:98;Ruthenium:Ru:101.07;Rhodium:Rh:102.9055;"
+            + "Palladium:Pd:106.42;Silver:Ag:107.8682;Cadmium:Cd:112.411;Indium:In:114.818;Tin:Sn:118.71;"
+            + "Antimony:Sb:121.76;Tellurium:Te:127.6;Iodine:I:126.90447;Xenon:Xe:131.293;Caesium:Cs:132.90545;"
+            + "Barium:Ba:137.327;Lanthanum:La:138.9055;Cerium:Ce:140.116;Praseodymium:Pr:140.90765;Neodymium:Nd:144.24;"
+            + "Promethium:Pm:145;Samarium:Sm:150.36;Europium:Eu:151.964;Gadolinium:Gd:157.25;Terbium:Tb:158.92534;"
+            + "Dysprosium:Dy:162.5;Holmium:Ho:164.93032;Erbium:Er:167.259;Thulium:Tm:168.93421;Ytterbium:Yb:173.04;"
+            + "Lutetium:Lu:174.967;Hafnium:Hf:178.49;Tantalum:Ta:180.9479;Tungsten:W:183.84;Rhenium:Re:186.207;"
+            + "Osmium:Os:190.23;Iridium:Ir:192.217;Platinum:Pt:195.078;Gold:Au:196.96655;Mercury:Hg:200.59;"
+            + "Thallium:Tl:204.3833;Lead:Pb:207.2;Bismuth:Bi:208.98038;Polonium:Po:209;Astatine:At:210;"
+            + "Radon:Rn:222;Francium:Fr:223;Radium:Ra:226;Actinium:Ac:227;Thorium:Th:232.0381;"
+            + "Protactinium:Pa:231.03588;Uranium:U:238.02891;Neptunium:Np:237;Plutonium:Pu:244;Americium:Am:243;"
+            + "Curium:Cm:247;Berkelium:Bk:247;Californium:Cf:251;Einsteinium:Es:252;Fermium:Fm:257;"
+            + "Mendelevium:Md:258;Nobelium:No:259;Lawrencium:Lr:262;Rutherfordium:Rf:261;Dubnium:Db:262;"
+            + "Seaborgium:Sg:266;Bohrium:Bh:264;Hassium:Hs:277;Meitnerium:Mt:268;Darmstadtium:Ds:281;"
+            + "Roentgenium:Rg:272;Copernicium:Cn:285";
+
+    static final List<Element> ALL;
+    static final Map<String, Element> BY_NAME;
+
+    static {
+        final String[] rows = TABLE.split(";");
+        final Element[] elements = new Element[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            final String[] row = rows[i].split(":");
+            elements[i] = new Element(row[0], row[1], i + 1, row[2]);
+        }
+        ALL = Collections.unmodifiableList(Arrays.asList(elements));
+        BY_NAME = ALL.stream().collect(Collectors.toMap(element -> element.name.toLowerCase(), Function.identity()));
+    }
+
+    private Elements() {
+    }
+
+    // inner classes
+    static final class Element {
+        final String name;
+        final String symbol;
+        final int number;
+        final String weight;
+
+        private Element(String name, String symbol, int number, String weight) {
+            this.name = name;
+            this.symbol = symbol;
+            this.number = number;
+            this.weight = weight;
+        }
+    }
+}
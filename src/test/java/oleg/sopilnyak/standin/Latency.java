@@ -0,0 +1,43 @@
+package oleg.sopilnyak.standin;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distribution of simulated latency of remote service (values are in milliseconds)
+ */
+public interface Latency {
+    /**
+     * Service responds immediately
+     */
+    Latency NONE = () -> 0L;
+
+    /**
+     * To get latency of next response
+     *
+     * @return duration in milliseconds
+     */
+    long next();
+
+    static Latency fixed(long millis) {
+        return () -> millis;
+    }
+
+    static Latency uniform(long minimum, long maximum) {
+        return () -> ThreadLocalRandom.current().nextLong(minimum, maximum + 1);
+    }
+
+    static Latency exponential(double mean) {
+        return () -> Math.round(-mean * Math.log(1.0 - ThreadLocalRandom.current().nextDouble()));
+    }
+
+    /**
+     * Long tail distribution, typical for remote services
+     *
+     * @param median latency of half responses
+     * @param sigma  spread of distribution (1.0 - p99 is about ten times of median)
+     * @return latency distribution
+     */
+    static Latency logNormal(double median, double sigma) {
+        return () -> Math.round(median * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+}
@@ -0,0 +1,285 @@
+package oleg.sopilnyak.standin;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import oleg.sopilnyak.pacing.Pacer;
+import oleg.sopilnyak.pacing.TokenBucketPacer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-JVM stand-in of Periodical SOAP Service (http://www.webservicex.net/periodictable.asmx)<BR/>
+ * It serves WSDL and canned NewDataSet responses of PeriodictableSoap operations on localhost
+ * with configurable latency, rate of errors and limit of throughput<BR/>
+ * Usage: new Periodictable(standIn.start().getWsdlLocation()).getPeriodictableSoap()
+ */
+public class PeriodictableStandIn {
+    private static final String NAMESPACE = "http://www.webserviceX.NET";
+    private static final String PATH = "/periodictable.asmx";
+    private static final String[] OPERATIONS = {"GetAtoms", "GetAtomicWeight", "GetAtomicNumber", "GetElementSymbol"};
+    private static final Pattern OPERATION = Pattern.compile("<(?:\\w+:)?(GetAtoms|GetAtomicWeight|GetAtomicNumber|GetElementSymbol)[\\s/>]");
+    private static final Pattern ELEMENT_NAME = Pattern.compile("<(?:\\w+:)?ElementName[^>]*>([^<]*)<");
+
+    private volatile Latency latency = Latency.NONE;
+    private volatile double errorRate = 0.0;
+    private volatile Pacer throughput = Pacer.NONE;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * To setup latency of responses
+     *
+     * @param latency distribution of latency
+     * @return this stand-in
+     */
+    public PeriodictableStandIn latency(Latency latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * To setup part of requests which fail with SOAP fault
+     *
+     * @param errorRate part of failed requests (0.0 .. 1.0)
+     * @return this stand-in
+     */
+    public PeriodictableStandIn errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * To setup maximum throughput of service, excess requests are queued
+     *
+     * @param requestsPerSecond maximum quantity of requests per second (0 - unlimited)
+     * @return this stand-in
+     */
+    public PeriodictableStandIn throughputLimit(double requestsPerSecond) {
+        this.throughput = requestsPerSecond > 0 ? new TokenBucketPacer(requestsPerSecond, 1) : Pacer.NONE;
+        return this;
+    }
+
+    /**
+     * To start serving on free port of localhost
+     *
+     * @return this stand-in
+     * @throws IOException if cannot start http server
+     */
+    public synchronized PeriodictableStandIn start() throws IOException {
+        if (server == null) {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            executor = Executors.newCachedThreadPool();
+            server.setExecutor(executor);
+            server.createContext(PATH, this::handle);
+            server.start();
+        }
+        return this;
+    }
+
+    /**
+     * To stop serving
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    /**
+     * To get location of service's WSDL
+     *
+     * @return url of WSDL
+     */
+    public URL getWsdlLocation() {
+        try {
+            return new URL(getAddress() + "?wsdl");
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * To get address of service endpoint
+     *
+     * @return url of endpoint
+     */
+    public String getAddress() {
+        return "http://localhost:" + server.getAddress().getPort() + PATH;
+    }
+
+    /**
+     * To get quantity of served SOAP requests
+     *
+     * @return value
+     */
+    public int getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * To get quantity of SOAP requests failed by error rate
+     *
+     * @return value
+     */
+    public int getErrors() {
+        return errors.get();
+    }
+
+    // private methods
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if ("GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                respond(exchange, 200, wsdl());
+                return;
+            }
+            final String request = read(exchange.getRequestBody());
+            requests.incrementAndGet();
+            throughput.acquire();
+            final long delay = latency.next();
+            if (delay > 0) {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                respond(exchange, 500, fault("Simulated failure of service"));
+                return;
+            }
+            final Matcher operation = OPERATION.matcher(request);
+            if (!operation.find()) {
+                respond(exchange, 500, fault("Unknown operation"));
+                return;
+            }
+            final Matcher elementName = ELEMENT_NAME.matcher(request);
+            final String name = elementName.find() ? elementName.group(1).trim() : "";
+            respond(exchange, 200, response(operation.group(1), dataSet(operation.group(1), name)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(503, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String dataSet(String operation, String name) {
+        final StringBuilder xml = new StringBuilder("<NewDataSet>");
+        if ("GetAtoms".equals(operation)) {
+            for (final Elements.Element element : Elements.ALL) {
+                xml.append("<Table><ElementName>").append(element.name).append("</ElementName></Table>");
+            }
+            return xml.append("</NewDataSet>").toString();
+        }
+        final Elements.Element element = Elements.BY_NAME.get(name.toLowerCase());
+        if (element == null) {
+            return "";
+        }
+        xml.append("<Table>");
+        switch (operation) {
+            case "GetAtomicWeight":
+                xml.append("<AtomicWeight>").append(element.weight).append("</AtomicWeight>");
+                break;
+            case "GetElementSymbol":
+                xml.append("<Symbol>").append(element.symbol).append("</Symbol>");
+                break;
+            default:
+                xml.append("<AtomicNumber>").append(element.number).append("</AtomicNumber>")
+                        .append("<ElementName>").append(element.name).append("</ElementName>")
+                        .append("<Symbol>").append(element.symbol).append("</Symbol>")
+                        .append("<AtomicWeight>").append(element.weight).append("</AtomicWeight>");
+        }
+        return xml.append("</Table></NewDataSet>").toString();
+    }
+
+    private static String response(String operation, String result) {
+        return envelope("<" + operation + "Response xmlns=\"" + NAMESPACE + "\"><" + operation + "Result>"
+                + escape(result) + "</" + operation + "Result></" + operation + "Response>");
+    }
+
+    private static String fault(String message) {
+        return envelope("<soap:Fault><faultcode>soap:Server</faultcode><faultstring>" + escape(message) + "</faultstring></soap:Fault>");
+    }
+
+    private static String envelope(String body) {
+        return "<?xml version=\"1.0\" encoding=\"utf-8\"?>"
+                + "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body>" + body + "</soap:Body></soap:Envelope>";
+    }
+
+    private String wsdl() {
+        final StringBuilder types = new StringBuilder();
+        final StringBuilder messages = new StringBuilder();
+        final StringBuilder portType = new StringBuilder();
+        final StringBuilder binding = new StringBuilder();
+        for (final String operation : OPERATIONS) {
+            final String parameter = "GetAtoms".equals(operation) ? "<s:complexType/>"
+                    : "<s:complexType><s:sequence><s:element minOccurs=\"0\" maxOccurs=\"1\" name=\"ElementName\" type=\"s:string\"/></s:sequence></s:complexType>";
+            types.append("<s:element name=\"").append(operation).append("\">").append(parameter).append("</s:element>")
+                    .append("<s:element name=\"").append(operation).append("Response\"><s:complexType><s:sequence>")
+                    .append("<s:element minOccurs=\"0\" maxOccurs=\"1\" name=\"").append(operation).append("Result\" type=\"s:string\"/>")
+                    .append("</s:sequence></s:complexType></s:element>");
+            messages.append("<wsdl:message name=\"").append(operation).append("SoapIn\"><wsdl:part name=\"parameters\" element=\"tns:")
+                    .append(operation).append("\"/></wsdl:message>")
+                    .append("<wsdl:message name=\"").append(operation).append("SoapOut\"><wsdl:part name=\"parameters\" element=\"tns:")
+                    .append(operation).append("Response\"/></wsdl:message>");
+            portType.append("<wsdl:operation name=\"").append(operation).append("\">")
+                    .append("<wsdl:input message=\"tns:").append(operation).append("SoapIn\"/>")
+                    .append("<wsdl:output message=\"tns:").append(operation).append("SoapOut\"/></wsdl:operation>");
+            binding.append("<wsdl:operation name=\"").append(operation).append("\">")
+                    .append("<soap:operation soapAction=\"").append(NAMESPACE).append('/').append(operation).append("\" style=\"document\"/>")
+                    .append("<wsdl:input><soap:body use=\"literal\"/></wsdl:input><wsdl:output><soap:body use=\"literal\"/></wsdl:output>")
+                    .append("</wsdl:operation>");
+        }
+        return "<?xml version=\"1.0\" encoding=\"utf-8\"?>"
+                + "<wsdl:definitions xmlns:soap=\"http://schemas.xmlsoap.org/wsdl/soap/\" xmlns:s=\"http://www.w3.org/2001/XMLSchema\""
+                + " xmlns:tns=\"" + NAMESPACE + "\" xmlns:wsdl=\"http://schemas.xmlsoap.org/wsdl/\" targetNamespace=\"" + NAMESPACE + "\">"
+                + "<wsdl:types><s:schema elementFormDefault=\"qualified\" targetNamespace=\"" + NAMESPACE + "\">" + types + "</s:schema></wsdl:types>"
+                + messages
+                + "<wsdl:portType name=\"periodictableSoap\">" + portType + "</wsdl:portType>"
+                + "<wsdl:binding name=\"periodictableSoap\" type=\"tns:periodictableSoap\">"
+                + "<soap:binding transport=\"http://schemas.xmlsoap.org/soap/http\"/>" + binding + "</wsdl:binding>"
+                + "<wsdl:service name=\"periodictable\"><wsdl:port name=\"periodictableSoap\" binding=\"tns:periodictableSoap\">"
+                + "<soap:address location=\"" + getAddress() + "\"/></wsdl:port></wsdl:service>"
+                + "</wsdl:definitions>";
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static String read(InputStream input) throws IOException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int read;
+        while ((read = input.read(buffer)) > 0) {
+            content.write(buffer, 0, read);
+        }
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        final byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=utf-8");
+        exchange.sendResponseHeaders(status, content.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(content);
+        }
+    }
+}
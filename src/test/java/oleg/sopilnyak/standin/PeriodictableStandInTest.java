@@ -0,0 +1,113 @@
+package oleg.sopilnyak.standin;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class PeriodictableStandInTest {
+    private PeriodictableStandIn standIn;
+
+    @Before
+    public void setUp() throws Exception {
+        standIn = new PeriodictableStandIn().start();
+    }
+
+    @After
+    public void tearDown() {
+        standIn.stop();
+    }
+
+    @Test
+    public void wsdl() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) standIn.getWsdlLocation().openConnection();
+
+        assertEquals(200, connection.getResponseCode());
+        String wsdl = read(connection.getInputStream());
+        assertTrue(wsdl.contains("<soap:address location=\"" + standIn.getAddress() + "\"/>"));
+        assertTrue(wsdl.contains("soapAction=\"http://www.webserviceX.NET/GetElementSymbol\""));
+    }
+
+    @Test
+    public void operations() throws Exception {
+        String atoms = post("<GetAtoms xmlns=\"http://www.webserviceX.NET\"/>").body;
+        assertTrue(atoms.contains("&lt;ElementName&gt;Hydrogen&lt;/ElementName&gt;"));
+
+        String weight = post("<GetAtomicWeight xmlns=\"http://www.webserviceX.NET\"><ElementName>Carbon</ElementName></GetAtomicWeight>").body;
+        assertTrue(weight.contains("<GetAtomicWeightResult>&lt;NewDataSet&gt;&lt;Table&gt;&lt;AtomicWeight&gt;12.0107&lt;"));
+
+        String symbol = post("<ns:GetElementSymbol xmlns:ns=\"http://www.webserviceX.NET\"><ns:ElementName>iron</ns:ElementName></ns:GetElementSymbol>").body;
+        assertTrue(symbol.contains("&lt;Symbol&gt;Fe&lt;/Symbol&gt;"));
+        assertEquals(3, standIn.getRequests());
+    }
+
+    @Test
+    public void latencyAndErrors() throws Exception {
+        standIn.latency(Latency.fixed(50)).errorRate(1.0);
+
+        long started = System.nanoTime();
+        Response response = post("<GetAtoms xmlns=\"http://www.webserviceX.NET\"/>");
+
+        assertTrue(System.nanoTime() - started >= 50_000_000L);
+        assertEquals(500, response.status);
+        assertTrue(response.body.contains("<faultstring>Simulated failure of service</faultstring>"));
+        assertEquals(1, standIn.getErrors());
+    }
+
+    @Test
+    public void throughputLimit() throws Exception {
+        standIn.throughputLimit(20);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, post("<GetAtoms xmlns=\"http://www.webserviceX.NET\"/>").status);
+        }
+
+        // the first request is permitted at once, next ones every 50 milliseconds
+        assertTrue(System.nanoTime() - started >= 190_000_000L);
+    }
+
+    // private methods
+    private Response post(String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(standIn.getAddress()).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "text/xml; charset=utf-8");
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(("<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body>" + body
+                    + "</soap:Body></soap:Envelope>").getBytes(StandardCharsets.UTF_8));
+        }
+        int status = connection.getResponseCode();
+        return new Response(status, read(status < 400 ? connection.getInputStream() : connection.getErrorStream()));
+    }
+
+    private static String read(InputStream input) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = input.read(buffer)) > 0) {
+            content.write(buffer, 0, read);
+        }
+        input.close();
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static class Response {
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -4,11 +4,17 @@ import oleg.sopilnyak.util.AtomElementService;
 import org.jdom2.JDOMException;
 import org.junit.Test;
 
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
 
 public class AtomServiceTest {
     private final String data = "<NewDataSet>\n" +
@@ -360,4 +366,48 @@ public class AtomServiceTest {
         assertNotNull(value);
         assertEquals("Actinium", value);
     }
+    @Test
+    public void testAtomsStreaming() throws Exception {
+        List<String> atoms = new ArrayList<>();
+        AtomElementService.atomElements(new StringReader(data), atoms::add);
+        assertEquals(112, atoms.size());
+        assertEquals("Actinium", atoms.get(0));
+        assertEquals(AtomElementService.atomElements(data), atoms);
+
+        try (Stream<String> names = AtomElementService.atomElementsStream(new StringReader(data))) {
+            assertEquals(atoms, names.collect(Collectors.toList()));
+        }
+        try (Stream<String> names = AtomElementService.atomElementsStream(new StringReader(data))) {
+            Iterator<String> iterator = names.iterator();
+            assertEquals("Actinium", iterator.next());
+            assertEquals("Aluminium", iterator.next());
+        }
+    }
+    @Test
+    public void testAtomsStreamingLikeDocument() throws Exception {
+        String xml = "<NewDataSet><Table><Symbol>H</Symbol></Table>" +
+                "<Table><Symbol>He</Symbol><ElementName> Helium </ElementName><Info><ElementName>Other</ElementName></Info></Table>" +
+                "<Other><ElementName>Other</ElementName></Other></NewDataSet>";
+        List<String> atoms = new ArrayList<>();
+        AtomElementService.atomElements(new StringReader(xml), atoms::add);
+        assertEquals(Arrays.asList(null, "Helium"), atoms);
+        assertEquals(AtomElementService.atomElements(xml), atoms);
+    }
+    @Test
+    public void testAtomsStreamingWrongData() throws Exception {
+        String xml = "<NewDataSet><Table><ElementName>Hydrogen</ElementName></Table><Table>";
+        List<String> atoms = new ArrayList<>();
+        try {
+            AtomElementService.atomElements(new StringReader(xml), atoms::add);
+            fail("Wrong data-set is parsed");
+        } catch (XMLStreamException e) {
+            assertEquals(Arrays.asList("Hydrogen"), atoms);
+        }
+        try (Stream<String> names = AtomElementService.atomElementsStream(new StringReader(xml))) {
+            names.count();
+            fail("Wrong data-set is parsed");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof XMLStreamException);
+        }
+    }
 }